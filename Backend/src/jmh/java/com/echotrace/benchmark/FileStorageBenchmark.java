@@ -0,0 +1,69 @@
+package com.echotrace.benchmark;
+
+import com.echotrace.service.imp.FileStorageService;
+import com.echotrace.storage.LocalAttachmentStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileStorageService.saveFile for small, medium and large payloads on local storage in a temp folder. Stored
+ * files are removed after each iteration, outside the measured code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({"1024", "1048576", "16777216"})
+    private int payloadBytes;
+
+    private final List<String> storedFiles = new ArrayList<>();
+    private Path root;
+    private FileStorageService fileStorageService;
+    private MockMultipartFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("echotrace-bench-");
+        fileStorageService = new FileStorageService(new LocalAttachmentStore(root), null, null, false);
+        byte[] payload = new byte[payloadBytes];
+        new Random(42).nextBytes(payload);
+        file = new MockMultipartFile("files", "stacktrace.log", "text/plain", payload);
+    }
+
+    @Benchmark
+    public String saveFile() {
+        String stored = fileStorageService.saveFile(file);
+        storedFiles.add(stored);
+        return stored;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteStoredFiles() throws IOException {
+        for (String stored : storedFiles) {
+            fileStorageService.releaseFile(stored);
+        }
+        storedFiles.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRoot() throws IOException {
+        try (var files = Files.walk(root)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
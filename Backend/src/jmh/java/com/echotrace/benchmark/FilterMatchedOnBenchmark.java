@@ -0,0 +1,97 @@
+package com.echotrace.benchmark;
+
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.model.LogEntry;
+import com.echotrace.repository.LogMongoRepository;
+import com.echotrace.service.imp.LogService;
+import com.echotrace.util.KeywordMatcher;
+import com.echotrace.util.LogEntryMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LogService.filterLogs over one page of results with Mongo stubbed out, so the measured work is the
+ * per-entry matchedOn and highlight computation plus mapping. The keyword only occurs in the solution, so every
+ * field is scanned in full. keywordMatcher isolates the KeywordMatcher pass over one solution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterMatchedOnBenchmark {
+
+    private static final String KEYWORD = "Deadlock";
+
+    @Param({"200", "20000"})
+    private int fieldLength;
+
+    private LogService logService;
+    private KeywordMatcher matcher;
+    private String solution;
+
+    @Setup
+    public void setUp() {
+        List<LogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LogEntry entry = new LogEntry();
+            entry.setTitle("Entry " + i);
+            entry.setProblem(text(fieldLength));
+            entry.setSolution(text(fieldLength) + " deadlock resolved");
+            entry.setTags(List.of("java", "concurrency", "threads"));
+            entry.setCreatedAt(LocalDateTime.now().minusDays(i));
+            entry.setCreatedBy(new LogEntry.EmbeddedUser("u1", "benchmark-user"));
+            entries.add(entry);
+        }
+
+        LogMongoRepository stubRepository = new LogMongoRepository(null, null, null, null) {
+            @Override
+            public Page<LogEntry> filterLogs(String username, String keyword, String tag,
+                                             LocalDateTime beforeDate, LocalDateTime afterDate,
+                                             LocalDateTime betweenStart, LocalDateTime betweenEnd,
+                                             SearchMode searchMode, CountMode countMode, boolean summary,
+                                             Pageable pageable) {
+                return new PageImpl<>(entries, pageable, entries.size());
+            }
+        };
+        logService = new LogService(null, stubRepository, null, null, null, null, null,
+                new LogEntryMapper(), null, null, null, null);
+
+        matcher = KeywordMatcher.compile(KEYWORD);
+        solution = entries.get(0).getSolution();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("benchmark-user", null, List.of()));
+    }
+
+    @Benchmark
+    public Page<LogEntryResponse> filterLogs() {
+        return logService.filterLogs(KEYWORD, "threads", null, null, null, null,
+                SearchMode.REGEX, CountMode.NONE, 0, 10, "createdAt,desc");
+    }
+
+    @Benchmark
+    public List<int[]> keywordMatcher() {
+        return matcher.find(solution);
+    }
+
+    private static String text(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append("Thread pool exhausted while waiting on connection. ");
+        }
+        return builder.substring(0, length);
+    }
+}
@@ -0,0 +1,73 @@
+package com.echotrace.benchmark;
+
+import com.echotrace.security.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil token generation and validation. Also compares the old JwtAuthFilter path (key and parser rebuilt,
+ * token parsed twice) with the single-parse JwtUtil.verify, with the verified-token cache both disabled and warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtUtil(SECRET, 3_600_000, 86_400_000, 0, 0);
+        cached = new JwtUtil(SECRET, 3_600_000, 86_400_000, 10_000, 600_000);
+        token = uncached.generateToken("benchmark-user");
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncached.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return uncached.validateToken(token);
+    }
+
+    @Benchmark
+    public String legacyExtractThenValidate() {
+        String username = Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody().getSubject();
+        try {
+            Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token);
+        } catch (JwtException e) {
+            return null;
+        }
+        return username;
+    }
+
+    @Benchmark
+    public String verifyParseOnce() {
+        return uncached.verify(token).getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return cached.verify(token).getSubject();
+    }
+
+    private Key legacyKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+}
@@ -0,0 +1,50 @@
+package com.echotrace.benchmark;
+
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.model.LogEntry;
+import com.echotrace.util.LogEntryMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogEntryMapperBenchmark {
+
+    @Param({"0", "3", "20"})
+    private int attachments;
+
+    private final LogEntryMapper mapper = new LogEntryMapper();
+    private LogEntry entry;
+
+    @Setup
+    public void setUp() {
+        List<String> filePaths = new ArrayList<>();
+        for (int i = 0; i < attachments; i++) {
+            filePaths.add(UUID.randomUUID() + ".png");
+        }
+
+        entry = new LogEntry();
+        entry.setTitle("Login Bug - NullPointerException");
+        entry.setProblem("NullPointerException on login API");
+        entry.setSolution("Added null check for user object");
+        entry.setTags(List.of("springboot", "bugfix", "auth"));
+        entry.setFilePaths(filePaths);
+        entry.setCreatedAt(LocalDateTime.now().minusDays(1));
+        entry.setUpdatedAt(LocalDateTime.now());
+        entry.setCreatedBy(new LogEntry.EmbeddedUser("u1", "benchmark-user"));
+    }
+
+    @Benchmark
+    public LogEntryResponse toResponse() {
+        return mapper.toResponse(entry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.echotrace.benchmark;
+
+import com.echotrace.util.PaginationUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationUtilBenchmark {
+
+    @Param({"createdAt,desc", "title,desc&sort=createdAt,asc&sort=updatedAt,desc"})
+    private String sort;
+
+    @Benchmark
+    public Pageable createPageRequest() {
+        return PaginationUtil.createPageRequest(3, 10, sort);
+    }
+}
@@ -0,0 +1,169 @@
+package com.echotrace.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test against a running backend, to compare platform and virtual request threads. Reports throughput
+ * and the latency distribution (p0.99 in the SampleTime rows) of a Mongo-bound read, an upload that writes to
+ * disk and a BCrypt-bound login, each from 200 concurrent clients.
+ *
+ * <p>Excluded from the default benchmark run. Start the backend once per mode, then run
+ * <pre>
+ * mvn -Pbenchmarks -DskipTests verify -Djmh.includes=ThreadingModeLoad -Djmh.excludes=^$
+ * </pre>
+ * against each and diff the two result files. Platform threads are the default; virtual threads need the
+ * java21 build and the virtual-threads Spring profile:
+ * <pre>
+ * mvn -Pjava21 spring-boot:run
+ * </pre>
+ * LOADTEST_URL (default http://localhost:8082), LOADTEST_USERNAME and LOADTEST_PASSWORD select the target and
+ * the account, which is registered on first use. Uploaded logs are deleted after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(200)
+@Fork(1)
+public class ThreadingModeLoadBenchmark {
+
+    private static final String BOUNDARY = "echotrace-load-test";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<String> createdLogs = new ConcurrentLinkedQueue<>();
+
+    private HttpClient client;
+    private String baseUrl;
+    private String credentials;
+    private String bearer;
+    private byte[] uploadBody;
+    private int attachmentOffset;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        baseUrl = env("LOADTEST_URL", "http://localhost:8082");
+        String username = env("LOADTEST_USERNAME", "loadtest");
+        String password = env("LOADTEST_PASSWORD", "loadtest-password");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        credentials = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+
+        HttpResponse<String> login = post("/api/auth/login", credentials);
+        if (login.statusCode() != 200) {
+            post("/api/auth/register", objectMapper.writeValueAsString(Map.of(
+                    "username", username, "password", password,
+                    "name", "Load Test", "email", username + "@loadtest.invalid")));
+            login = post("/api/auth/login", credentials);
+        }
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Cannot log in to " + baseUrl + ": HTTP " + login.statusCode());
+        }
+        bearer = "Bearer " + objectMapper.readTree(login.body()).path("token").asText();
+        uploadBody = multipartBody(256 * 1024);
+    }
+
+    @Benchmark
+    public int listLogs() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs?page=0&size=20"))
+                .header("Authorization", bearer)
+                .GET()
+                .build();
+        return expectOk(client.send(request, HttpResponse.BodyHandlers.ofByteArray())).statusCode();
+    }
+
+    @Benchmark
+    public int uploadLog() throws IOException, InterruptedException {
+        // A distinct attachment per request, so content addressing cannot skip the disk write
+        byte[] body = uploadBody.clone();
+        byte[] unique = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(unique, 0, body, attachmentOffset, unique.length);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs"))
+                .header("Authorization", bearer)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<String> response = expectOk(client.send(request, HttpResponse.BodyHandlers.ofString()));
+        JsonNode created = objectMapper.readTree(response.body());
+        createdLogs.add(created.path("id").asText());
+        return response.statusCode();
+    }
+
+    @Benchmark
+    public int login() throws IOException, InterruptedException {
+        return expectOk(post("/api/auth/login", credentials)).statusCode();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteUploadedLogs() throws IOException, InterruptedException {
+        String id;
+        while ((id = createdLogs.poll()) != null) {
+            client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs/" + id))
+                    .header("Authorization", bearer)
+                    .DELETE()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Failed requests would otherwise show up as very fast successful ones
+    private static <T> HttpResponse<T> expectOk(HttpResponse<T> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri() + " answered HTTP " + response.statusCode());
+        }
+        return response;
+    }
+
+    private byte[] multipartBody(int attachmentBytes) throws IOException {
+        String log = objectMapper.writeValueAsString(Map.of(
+                "title", "Load test " + UUID.randomUUID(),
+                "problem", "Connection pool exhausted under upload-heavy load",
+                "solution", "Measure both threading modes before changing pool sizes"));
+        byte[] attachment = new byte[attachmentBytes];
+        new Random(42).nextBytes(attachment);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"log\"\r\n"
+                + "Content-Type: application/json\r\n\r\n"
+                + log + "\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"heap.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        attachmentOffset = body.size();
+        body.write(attachment);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -9,7 +9,11 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
-		org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration.class
+		org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration.class,
+		// Reactive Mongo is set up by ReactiveMongoConfig, and only with the "reactive" profile
+		org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration.class,
+		org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration.class,
+		org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration.class
 })
 @EnableMongoAuditing
 @EnableScheduling
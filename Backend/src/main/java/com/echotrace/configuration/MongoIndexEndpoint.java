@@ -0,0 +1,27 @@
+package com.echotrace.configuration;
+
+import com.echotrace.dto.IndexReport;
+import com.echotrace.repository.MongoIndexManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/mongoindexes: missing indexes, the plan of every representative query and indexes without
+ * any use. Every call explains all of those queries, so it is not exposed over HTTP by default: read it over
+ * JMX (spring.jmx.enabled=true), or add it to management.endpoints.web.exposure.include, where SecurityConfig
+ * only lets callers with the ADMIN authority through. Read-only: index builds are left to startup.
+ */
+@Component
+@Endpoint(id = "mongoindexes")
+@RequiredArgsConstructor
+public class MongoIndexEndpoint {
+
+    private final MongoIndexManager mongoIndexManager;
+
+    @ReadOperation
+    public IndexReport report() {
+        return mongoIndexManager.verify();
+    }
+}
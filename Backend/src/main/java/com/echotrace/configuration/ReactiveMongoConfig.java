@@ -0,0 +1,43 @@
+package com.echotrace.configuration;
+
+import com.echotrace.repository.ReactiveLogRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Reactive Mongo client and template for the "reactive" profile, against the same database as the blocking
+ * one and sharing its mapping, so both read and write the same documents. The reactive auto-configuration is
+ * excluded in EchoTraceApplication, so the MVC build does not open a second connection pool.
+ * Enabling reactive repositories switches off the imperative repository auto-configuration, so those are
+ * enabled here as well; each annotation only picks up the interfaces of its own flavour.
+ */
+@Configuration
+@Profile("reactive")
+@EnableMongoRepositories(basePackageClasses = ReactiveLogRepository.class)
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveLogRepository.class)
+public class ReactiveMongoConfig {
+
+    @Bean(destroyMethod = "close")
+    public MongoClient reactiveMongoClient(MongoConnectionDetails connectionDetails) {
+        return MongoClients.create(connectionDetails.getConnectionString());
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+                                                       MongoDatabaseFactory mongoDatabaseFactory,
+                                                       MappingMongoConverter mappingMongoConverter) {
+        String database = mongoDatabaseFactory.getMongoDatabase().getName();
+        return new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, database), mappingMongoConverter);
+    }
+}
@@ -0,0 +1,140 @@
+package com.echotrace.configuration;
+
+import com.echotrace.security.JwtUtil;
+import com.echotrace.security.UserDetailsCache;
+import com.echotrace.service.imp.CustomUserDetailsService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Security of the "reactive" profile, in place of SecurityConfig: the same public paths and the same
+ * stateless Bearer JWT check, as a WebFlux filter chain. The blocking AuthenticationManager is kept for
+ * AuthController's login.
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManager(CustomUserDetailsService userDetailsService) {
+        var provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder());
+        return new ProviderManager(provider);
+    }
+
+    /**
+     * Verifies the token and loads the user from UserDetailsCache, which may hit Mongo on a miss and so
+     * runs on the bounded elastic scheduler.
+     */
+    @Bean
+    public ReactiveAuthenticationManager jwtAuthenticationManager(JwtUtil jwtUtil, UserDetailsCache userDetailsCache) {
+        return authentication -> Mono.fromCallable(() -> {
+            String token = (String) authentication.getCredentials();
+            String username;
+            try {
+                username = jwtUtil.verify(token).getSubject();
+            } catch (RuntimeException e) {
+                throw new BadCredentialsException("Invalid JWT token", e);
+            }
+            var userDetails = userDetailsCache.get(username);
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        }).subscribeOn(Schedulers.boundedElastic()).cast(Authentication.class);
+    }
+
+    @Bean
+    public SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http,
+                                                      ReactiveAuthenticationManager jwtAuthenticationManager,
+                                                      CorsConfigurationSource corsConfigurationSource) {
+        ServerAuthenticationEntryPoint entryPoint = (exchange, e) -> {
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory()
+                    .wrap("{\"error\": \"Unauthorized - Invalid or missing token\"}".getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        };
+
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtAuthenticationManager);
+        jwtFilter.setServerAuthenticationConverter(exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith("Bearer ")) {
+                return Mono.empty();
+            }
+            String token = header.substring(7);
+            return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+        });
+        jwtFilter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(entryPoint));
+        jwtFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        return http
+                .cors(cors -> cors.configurationSource(reactiveCors(corsConfigurationSource)))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(auth -> auth
+                        .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .pathMatchers("/api/auth/test").permitAll()
+                        .pathMatchers(
+                                "/v3/api-docs/**",
+                                "/swagger-ui/**",
+                                "/swagger-ui.html",
+                                "/swagger-resources/**",
+                                "/webjars/**"
+                        ).permitAll()
+                        .pathMatchers("/api/auth/login", "/api/auth/register").permitAll()
+                        .pathMatchers("/uploads/**").permitAll()
+                        .pathMatchers("/reminders/**").permitAll()
+                        .pathMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                        .pathMatchers("/actuator/**").hasAuthority("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(entryPoint))
+                .build();
+    }
+
+    // CorsConfig publishes the servlet flavour; the same mappings, registered for WebFlux
+    private static UrlBasedCorsConfigurationSource reactiveCors(CorsConfigurationSource servletSource) {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        if (servletSource instanceof org.springframework.web.cors.UrlBasedCorsConfigurationSource servletUrlSource) {
+            servletUrlSource.getCorsConfigurations().forEach(source::registerCorsConfiguration);
+        }
+        return source;
+    }
+}
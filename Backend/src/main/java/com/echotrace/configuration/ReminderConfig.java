@@ -0,0 +1,50 @@
+package com.echotrace.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ReminderConfig {
+
+    /**
+     * Bounded pool that delivers reminder batches. When the queue is full the scheduler thread runs the
+     * batch itself, which throttles the user cursor instead of buffering every opted-in user in memory.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor reminderExecutor(
+            @Value("${echotrace.reminders.executor.pool-size:4}") int poolSize,
+            @Value("${echotrace.reminders.executor.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("reminder-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * With spring.threads.virtual.enabled every batch gets its own virtual thread. The concurrency limit keeps
+     * the pool size's meaning: the scheduler blocks once that many batches are in flight, as it does above.
+     */
+    @Bean(name = "reminderExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualReminderExecutor(
+            @Value("${echotrace.reminders.executor.pool-size:4}") int poolSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("reminder-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(poolSize);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+}
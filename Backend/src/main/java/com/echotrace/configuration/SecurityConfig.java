@@ -7,6 +7,7 @@ import com.echotrace.service.imp.CustomUserDetailsService;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -20,6 +21,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @AllArgsConstructor
+@Profile("!reactive")
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
@@ -74,6 +76,9 @@ public class SecurityConfig {
                         .requestMatchers("/uploads/**").permitAll()
                         // Allow WebSocket connection endpoints to be public
                         .requestMatchers("/reminders/**").permitAll()
+                        // Actuator endpoints other than health (query plans, metrics) are for operators only
+                        .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
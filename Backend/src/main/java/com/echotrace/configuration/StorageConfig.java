@@ -0,0 +1,145 @@
+package com.echotrace.configuration;
+
+import com.echotrace.storage.AttachmentStore;
+import com.echotrace.storage.LocalAttachmentStore;
+import com.echotrace.storage.S3AttachmentStore;
+import com.echotrace.storage.TieredAttachmentStore;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class StorageConfig {
+
+    @Value("${echotrace.storage.local.root:src/main/resources/static/uploads}")
+    private String localRoot;
+
+    @Value("${echotrace.storage.s3.endpoint:https://s3.${echotrace.storage.s3.region:us-east-1}.amazonaws.com}")
+    private String s3Endpoint;
+
+    @Value("${echotrace.storage.s3.region:us-east-1}")
+    private String s3Region;
+
+    @Value("${echotrace.storage.s3.bucket:}")
+    private String s3Bucket;
+
+    @Value("${echotrace.storage.s3.prefix:}")
+    private String s3Prefix;
+
+    @Value("${echotrace.storage.s3.access-key:${AWS_ACCESS_KEY_ID:}}")
+    private String s3AccessKey;
+
+    @Value("${echotrace.storage.s3.secret-key:${AWS_SECRET_ACCESS_KEY:}}")
+    private String s3SecretKey;
+
+    @Value("${echotrace.storage.s3.staging-dir:${java.io.tmpdir}/echotrace-staging}")
+    private String s3StagingDir;
+
+    @Value("${echotrace.storage.s3.timeout-ms:30000}")
+    private long s3TimeoutMs;
+
+    /**
+     * Attachments in a sharded directory tree under echotrace.storage.local.root. The default root is the
+     * folder uploads have always been written to, whose flat files stay readable.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "echotrace.storage.backend", havingValue = "local", matchIfMissing = true)
+    public AttachmentStore localAttachmentStore() {
+        return new LocalAttachmentStore(Path.of(localRoot));
+    }
+
+    /**
+     * Attachments in an S3-compatible bucket. Set echotrace.storage.s3.endpoint for anything but AWS,
+     * e.g. http://localhost:9000 for a local MinIO.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "echotrace.storage.backend", havingValue = "s3")
+    public AttachmentStore s3AttachmentStore() {
+        return s3Store();
+    }
+
+    /**
+     * Attachments in the bucket, with local disk as this node's cache of new and recently read ones. Uploads
+     * are written through to the bucket; local copies are evicted after echotrace.storage.tiering.cold-after-ms
+     * without a read, see AttachmentTiering.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "echotrace.storage.backend", havingValue = "tiered")
+    public TieredAttachmentStore tieredAttachmentStore(
+            @Value("${echotrace.storage.tiering.access-granularity-ms:3600000}") long accessGranularityMs) {
+        return new TieredAttachmentStore(new LocalAttachmentStore(Path.of(localRoot)), s3Store(),
+                Duration.ofMillis(accessGranularityMs));
+    }
+
+    private S3AttachmentStore s3Store() {
+        return new S3AttachmentStore(URI.create(s3Endpoint), s3Region, s3Bucket, s3Prefix, s3AccessKey, s3SecretKey,
+                Path.of(s3StagingDir), Duration.ofMillis(s3TimeoutMs));
+    }
+
+    /**
+     * Bounded pool that stores the attachments of one upload in parallel. When the queue is full the request
+     * thread stores the file itself, so a burst of uploads slows down instead of queueing without limit.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor attachmentExecutor(
+            @Value("${echotrace.storage.executor.pool-size:4}") int poolSize,
+            @Value("${echotrace.storage.executor.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("attachment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Virtual thread variant, with the pool size as the limit of files stored at once.
+     */
+    @Bean(name = "attachmentExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualAttachmentExecutor(
+            @Value("${echotrace.storage.executor.pool-size:4}") int poolSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("attachment-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(poolSize);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    /**
+     * Spools multipart uploads into the attachment store's staging folder rather than the container's temp
+     * directory. For local storage both are then on one file system, so storing an attachment renames its
+     * spool file into place instead of copying the bytes a second time. An explicit
+     * spring.servlet.multipart.location still wins.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "spring.servlet.multipart", name = "enabled", matchIfMissing = true)
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+                                                         AttachmentStore attachmentStore) {
+        MultipartConfigElement config = properties.createMultipartConfig();
+        if (StringUtils.hasText(config.getLocation())) {
+            return config;
+        }
+        return new MultipartConfigElement(attachmentStore.stagingDir().toString(),
+                config.getMaxFileSize(), config.getMaxRequestSize(), config.getFileSizeThreshold());
+    }
+}
@@ -1,15 +1,54 @@
 package com.echotrace.configuration;
 
+import com.echotrace.security.StompAuthChannelInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP over SockJS on /reminders. With broker mode "simple" (default) subscriptions live in this JVM only.
+ * Mode "relay" forwards them to an external STOMP broker (RabbitMQ, ActiveMQ, ...), and shares user sessions
+ * between nodes, so any node can deliver to /user/queue/reminders of a client connected to another one.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user-destination";
+    static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final String brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           @Value("${echotrace.websocket.broker.mode:simple}") String brokerMode,
+                           @Value("${echotrace.websocket.broker.relay-host:localhost}") String relayHost,
+                           @Value("${echotrace.websocket.broker.relay-port:61613}") int relayPort,
+                           @Value("${echotrace.websocket.broker.login:guest}") String relayLogin,
+                           @Value("${echotrace.websocket.broker.passcode:guest}") String relayPasscode,
+                           @Value("${echotrace.websocket.broker.virtual-host:}") String relayVirtualHost) {
+        if (!"simple".equalsIgnoreCase(brokerMode) && !"relay".equalsIgnoreCase(brokerMode)) {
+            throw new IllegalArgumentException("echotrace.websocket.broker.mode must be 'simple' or 'relay', was " + brokerMode);
+        }
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.brokerMode = brokerMode;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/reminders")
@@ -19,7 +58,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry){
-        registry.enableSimpleBroker("/topic");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Messages for users with no session on this node are re-published for the other nodes
+                    .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
+                    // Nodes exchange their connected users, so SimpUserRegistry sees the whole cluster
+                    .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Sets the session principal on CONNECT, required for /user/queue/reminders
+        registration.interceptors(stompAuthChannelInterceptor);
     }
 }
@@ -1,12 +1,20 @@
 package com.echotrace.controller;
 
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.CursorPage;
+import com.echotrace.dto.ImportResult;
 import com.echotrace.dto.LogEntryRequest;
 import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.dto.SearchMode;
 import com.echotrace.service.ILogService;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,6 +22,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -21,11 +30,13 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @Tag(name = "LogController" , description = "CRUD operations for tracking problems and solutions")
 @RequestMapping("/api/logs")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class LogController {
 
     private final ILogService logService;
@@ -38,7 +49,10 @@ public class LogController {
     }
 
     @GetMapping("id/{id}")
-    public ResponseEntity<LogEntryResponse> getLogById(@PathVariable String id){
+    public ResponseEntity<LogEntryResponse> getLogById(@PathVariable String id, ServletWebRequest webRequest){
+        if (notModified(webRequest, logService.getLogETag(id))) {
+            return null;
+        }
         LogEntryResponse log = logService.getLogById(id);
         return ResponseEntity.ok(log);
     }
@@ -47,12 +61,79 @@ public class LogController {
     public ResponseEntity<Page<LogEntryResponse>> getAllLogs(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort) {
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
 
         Page<LogEntryResponse> pagedLogs = logService.getAllLogs(page, size, sort);
         return ResponseEntity.ok(pagedLogs);
     }
 
+    // Cursor mode, newest first: pass after= (empty) for the first slice, then the returned nextCursor
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<LogEntryResponse>> getLogsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(logService.getAllLogs(after, size));
+    }
+
+    // List views: title, tags, dates and a short problem preview instead of the full documents
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<Page<LogEntrySummary>> getLogSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(logService.getLogSummaries(page, size, sort));
+    }
+
+    @GetMapping(params = {"view=summary", "after"})
+    public ResponseEntity<CursorPage<LogEntrySummary>> getLogSummariesAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(logService.getLogSummaries(after, size));
+    }
+
+
+    @GetMapping("/export")
+    public void exportLogs(@Parameter(description = "Gzip the NDJSON stream") @RequestParam(defaultValue = "false") boolean gzip,
+                           HttpServletResponse response) throws IOException {
+        String filename = gzip ? "echotrace-logs.ndjson.gz" : "echotrace-logs.ndjson";
+        response.setContentType(gzip ? "application/gzip" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        if (gzip) {
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                logService.exportLogs(gzipStream);
+            }
+        } else {
+            logService.exportLogs(response.getOutputStream());
+        }
+    }
+
+    // Accepts NDJSON (one LogEntryRequest per line) or a JSON array, streamed rather than buffered
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ImportResult> importLogs(HttpServletRequest request) throws IOException {
+        ImportResult result = logService.importLogs(request.getInputStream());
+        return ResponseEntity.ok(result);
+    }
 
     @PatchMapping("/{id}")
     public ResponseEntity<LogEntryResponse> updateLog(@PathVariable String id,
@@ -76,9 +157,17 @@ public class LogController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenStart,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenEnd,
+            @Parameter(description = "regex (substring match) or text (text index, stemmed words, best match first)")
+            @RequestParam(defaultValue = "regex") SearchMode searchMode,
+            @Parameter(description = "exact, estimated (lower bound a few pages ahead) or none (only whether a next page exists)")
+            @RequestParam(defaultValue = "exact") CountMode countMode,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort) {
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
 
         // Trim and normalize empty strings
         if (keyword != null && keyword.isBlank()) {
@@ -89,12 +178,119 @@ public class LogController {
         }
 
         Page<LogEntryResponse> result = logService.filterLogs(
-                keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, page, size, sort
+                keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, countMode, page, size, sort
+        );
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = "/filter", params = "after")
+    public ResponseEntity<CursorPage<LogEntryResponse>> filterAdvancedAfter(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenEnd,
+            @Parameter(description = "regex or text; slices stay newest first either way")
+            @RequestParam(defaultValue = "regex") SearchMode searchMode,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
+
+        if (keyword != null && keyword.isBlank()) {
+            keyword = null;
+        }
+        if (tag != null && tag.isBlank()) {
+            tag = null;
+        }
+
+        CursorPage<LogEntryResponse> result = logService.filterLogs(
+                keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, after, size
         );
 
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping(value = "/filter", params = "view=summary")
+    public ResponseEntity<Page<LogEntrySummary>> filterSummaries(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenEnd,
+            @Parameter(description = "regex (substring match) or text (text index, stemmed words, best match first)")
+            @RequestParam(defaultValue = "regex") SearchMode searchMode,
+            @Parameter(description = "exact, estimated (lower bound a few pages ahead) or none (only whether a next page exists)")
+            @RequestParam(defaultValue = "exact") CountMode countMode,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
 
+        if (keyword != null && keyword.isBlank()) {
+            keyword = null;
+        }
+        if (tag != null && tag.isBlank()) {
+            tag = null;
+        }
 
+        Page<LogEntrySummary> result = logService.filterLogSummaries(
+                keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, countMode, page, size, sort
+        );
+
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = "/filter", params = {"view=summary", "after"})
+    public ResponseEntity<CursorPage<LogEntrySummary>> filterSummariesAfter(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime betweenEnd,
+            @Parameter(description = "regex or text; slices stay newest first either way")
+            @RequestParam(defaultValue = "regex") SearchMode searchMode,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        if (notModified(webRequest, logService.getJournalETag())) {
+            return null;
+        }
+
+        if (keyword != null && keyword.isBlank()) {
+            keyword = null;
+        }
+        if (tag != null && tag.isBlank()) {
+            tag = null;
+        }
+
+        CursorPage<LogEntrySummary> result = logService.filterLogSummaries(
+                keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, after, size
+        );
+
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Sets the validation headers and answers If-None-Match. On true the response is already a 304 and the
+     * handler returns without loading, mapping or serializing anything.
+     */
+    private boolean notModified(ServletWebRequest webRequest, String etag) {
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            // Always revalidate, and keep shared caches from mixing up users
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        }
+        return webRequest.checkNotModified(etag);
+    }
 }
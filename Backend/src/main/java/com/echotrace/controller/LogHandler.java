@@ -0,0 +1,230 @@
+package com.echotrace.controller;
+
+import com.echotrace.dto.LogEntryRequest;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.exception.FileStorageException;
+import com.echotrace.exception.LogNotFoundException;
+import com.echotrace.exception.LogVersionConflictException;
+import com.echotrace.exception.UnauthorizedException;
+import com.echotrace.exception.UnsupportedFileException;
+import com.echotrace.service.IReactiveLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handlers behind LogRouter, the functional counterpart of LogController for the "reactive" profile.
+ * Lists are written as a JSON array, or as NDJSON when the client accepts application/x-ndjson, element by
+ * element as Mongo returns them; a slow reader slows the cursor down instead of filling the heap.
+ */
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class LogHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LogHandler.class);
+
+    private final IReactiveLogService logService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public Mono<ServerResponse> createLog(ServerRequest request) {
+        return request.multipartData().flatMap(parts -> readLog(parts)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Required part 'log' is not present.")))
+                .flatMap(logRequest -> {
+                    Set<ConstraintViolation<LogEntryRequest>> violations = validator.validate(logRequest);
+                    if (!violations.isEmpty()) {
+                        return validationFailed(violations, request);
+                    }
+                    return logService.createLog(logRequest, files(parts))
+                            .flatMap(created -> ServerResponse.ok().bodyValue(created));
+                }));
+    }
+
+    public Mono<ServerResponse> getLogById(ServerRequest request) {
+        return logService.getLogById(request.pathVariable("id"))
+                .flatMap(found -> ServerResponse.ok().bodyValue(found));
+    }
+
+    public Mono<ServerResponse> getAllLogs(ServerRequest request) {
+        // Deferred so that a bad parameter ends up in handleError instead of escaping the router
+        return Mono.defer(() -> stream(request, logService.getAllLogs(
+                intParam(request, "page", 0), intParam(request, "size", 10),
+                request.queryParam("sort").orElse("createdAt,desc"))));
+    }
+
+    public Mono<ServerResponse> filterLogs(ServerRequest request) {
+        return Mono.defer(() -> stream(request, logService.filterLogs(
+                textParam(request, "keyword"),
+                textParam(request, "tag"),
+                dateParam(request, "beforeDate"),
+                dateParam(request, "afterDate"),
+                dateParam(request, "betweenStart"),
+                dateParam(request, "betweenEnd"),
+                SearchMode.valueOf(request.queryParam("searchMode").orElse("regex").toUpperCase(Locale.ROOT)),
+                intParam(request, "page", 0),
+                intParam(request, "size", 10),
+                request.queryParam("sort").orElse("createdAt,desc"))));
+    }
+
+    public Mono<ServerResponse> exportLogs(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"echotrace-logs.ndjson\"")
+                .body(logService.exportLogs(), LogEntryResponse.class);
+    }
+
+    public Mono<ServerResponse> updateLog(ServerRequest request) {
+        return request.multipartData().flatMap(parts -> readLog(parts)
+                .defaultIfEmpty(filesOnly())
+                .flatMap(logRequest -> logService.updateLog(request.pathVariable("id"), logRequest, files(parts)))
+                .flatMap(updated -> ServerResponse.ok().bodyValue(updated)));
+    }
+
+    public Mono<ServerResponse> deleteLog(ServerRequest request) {
+        return logService.deleteLog(request.pathVariable("id"))
+                .then(ServerResponse.ok().bodyValue("Log deleted successfully"));
+    }
+
+    /**
+     * Same status codes and body as GlobalExceptionHandler, which only covers the servlet stack.
+     */
+    public Mono<ServerResponse> handleError(Throwable error, ServerRequest request) {
+        if (error instanceof LogNotFoundException) {
+            return errorResponse(HttpStatus.NOT_FOUND, error.getMessage(), request);
+        }
+        if (error instanceof LogVersionConflictException) {
+            return errorResponse(HttpStatus.CONFLICT, error.getMessage(), request);
+        }
+        if (error instanceof UnsupportedFileException || error instanceof ServerWebInputException
+                || error instanceof IllegalArgumentException) {
+            return errorResponse(HttpStatus.BAD_REQUEST, error.getMessage(), request);
+        }
+        if (error instanceof UnauthorizedException) {
+            return ServerResponse.status(HttpStatus.UNAUTHORIZED)
+                    .bodyValue("You are not authorized." + error.getMessage());
+        }
+        if (error instanceof FileStorageException) {
+            return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, error.getMessage(), request);
+        }
+        log.error("Request {} {} failed", request.method(), request.path(), error);
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Something went wrong", request);
+    }
+
+    private Mono<ServerResponse> stream(ServerRequest request, Flux<LogEntryResponse> logs) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(logs, LogEntryResponse.class);
+    }
+
+    // The "log" part is JSON; browsers send it as a Blob, i.e. as a file part named "blob"
+    private Mono<LogEntryRequest> readLog(MultiValueMap<String, Part> parts) {
+        Part part = parts.getFirst("log");
+        if (part == null) {
+            return Mono.empty();
+        }
+        return DataBufferUtils.join(part.content()).map(buffer -> {
+            try (InputStream json = buffer.asInputStream(true)) {
+                return objectMapper.readValue(json, LogEntryRequest.class);
+            } catch (IOException e) {
+                throw new ServerWebInputException("Part 'log' is not a valid log: " + e.getMessage());
+            }
+        });
+    }
+
+    private static Flux<FilePart> files(MultiValueMap<String, Part> parts) {
+        return Flux.fromIterable(parts.getOrDefault("files", List.of())).ofType(FilePart.class);
+    }
+
+    // An update without a "log" part only adds files; no property is overwritten
+    private static LogEntryRequest filesOnly() {
+        LogEntryRequest request = new LogEntryRequest();
+        request.setReferenceLinks(null);
+        request.setTags(null);
+        return request;
+    }
+
+    private Mono<ServerResponse> validationFailed(Set<ConstraintViolation<LogEntryRequest>> violations,
+                                                  ServerRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<LogEntryRequest> violation : violations) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        Map<String, Object> body = errorBody(HttpStatus.BAD_REQUEST, "Validation Failed", request);
+        body.put("errors", errors);
+        return ServerResponse.badRequest().bodyValue(body);
+    }
+
+    private static Mono<ServerResponse> errorResponse(HttpStatus status, String message, ServerRequest request) {
+        return ServerResponse.status(status).bodyValue(errorBody(status, message, request));
+    }
+
+    private static Map<String, Object> errorBody(HttpStatus status, String message, ServerRequest request) {
+        Map<String, Object> errorDetails = new LinkedHashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("status", status.value());
+        errorDetails.put("error", status.getReasonPhrase());
+        errorDetails.put("message", message);
+        errorDetails.put("path", request.path());
+        return errorDetails;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be a number");
+        }
+    }
+
+    // Blank strings count as absent, as in LogController
+    private static String textParam(ServerRequest request, String name) {
+        return request.queryParam(name).filter(value -> !value.isBlank()).orElse(null);
+    }
+
+    private static LocalDateTime dateParam(ServerRequest request, String name) {
+        String value = textParam(request, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be an ISO date-time");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.echotrace.controller;
+
+import com.echotrace.storage.AttachmentStore;
+import com.echotrace.storage.StoredObject;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Routes of the log API on the reactive stack: same paths, parameters and bodies as LogController, except
+ * that lists are streamed without a page envelope and there are no cursor, summary or import variants.
+ * Attachments are streamed whole from the attachment store, without the conditional and range handling of
+ * AttachmentController.
+ */
+@Configuration
+@Profile("reactive")
+public class LogRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> logRoutes(LogHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/logs", builder -> builder
+                        .POST("", RequestPredicates.contentType(MediaType.MULTIPART_FORM_DATA),
+                                handler::createLog)
+                        .GET("/id/{id}", handler::getLogById)
+                        .GET("/export", handler::exportLogs)
+                        .GET("/filter", handler::filterLogs)
+                        .GET("", handler::getAllLogs)
+                        .PATCH("/{id}", handler::updateLog)
+                        .DELETE("/{id}", handler::deleteLog))
+                .onError(Throwable.class, handler::handleError)
+                .build();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> uploadRoutes(AttachmentStore attachmentStore) {
+        return RouterFunctions.route(RequestPredicates.GET("/uploads/{filename}"),
+                request -> download(attachmentStore, request.pathVariable("filename")));
+    }
+
+    // Store calls block on disk or network, so they run on the bounded elastic scheduler
+    private Mono<ServerResponse> download(AttachmentStore attachmentStore, String filename) {
+        if (filename.contains("..") || filename.contains("\\")) {
+            return ServerResponse.badRequest().build();
+        }
+        return Mono.fromCallable(() -> attachmentStore.stat(filename))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(object -> object.isEmpty()
+                        ? ServerResponse.notFound().build()
+                        : ServerResponse.ok()
+                                .contentType(MediaTypeFactory.getMediaType(filename)
+                                        .orElse(MediaType.APPLICATION_OCTET_STREAM))
+                                .contentLength(object.get().getSize())
+                                .header(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable")
+                                .body(BodyInserters.fromDataBuffers(content(attachmentStore, object.get()))));
+    }
+
+    private Flux<DataBuffer> content(AttachmentStore attachmentStore, StoredObject object) {
+        if (object.getSize() == 0) {
+            return Flux.empty();
+        }
+        return DataBufferUtils.readInputStream(
+                        () -> attachmentStore.open(object.getName(), 0, object.getSize() - 1),
+                        DefaultDataBufferFactory.sharedInstance, 8192)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
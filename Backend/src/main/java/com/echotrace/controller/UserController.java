@@ -7,6 +7,7 @@ import com.echotrace.util.SecurityUtil;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "UserController", description = "Operations for user profile and settings")
 @RequestMapping("/api/users")
 @AllArgsConstructor
+@Profile("!reactive")
 public class UserController {
 
     private final IUserService userService;
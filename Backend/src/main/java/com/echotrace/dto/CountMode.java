@@ -0,0 +1,13 @@
+package com.echotrace.dto;
+
+/**
+ * How much work the filter endpoint spends on the total element count.
+ */
+public enum CountMode {
+    /** Exact count of every match (cached until the user's next write). */
+    EXACT,
+    /** Cached exact count when available, otherwise a count that stops after a few pages ahead. */
+    ESTIMATED,
+    /** No count at all, only whether a next page exists. */
+    NONE
+}
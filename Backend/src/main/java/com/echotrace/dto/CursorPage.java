@@ -0,0 +1,25 @@
+package com.echotrace.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(name = "CursorPage", description = "Slice of results for keyset (cursor) pagination")
+public class CursorPage<T> {
+
+    @Schema(description = "Entries on this slice")
+    private List<T> content;
+
+    @Schema(description = "Number of entries on this slice")
+    private int size;
+
+    @Schema(description = "Whether more entries follow this slice")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor to pass as 'after' for the next slice, null on the last slice")
+    private String nextCursor;
+}
@@ -0,0 +1,37 @@
+package com.echotrace.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Schema(name = "ImportResult", description = "Outcome of a bulk log import")
+public class ImportResult {
+
+    @Schema(description = "Number of logs stored")
+    private int imported;
+
+    @Schema(description = "Number of entries rejected")
+    private int failed;
+
+    @Schema(description = "Why each rejected entry failed, by line for NDJSON or by 1-based element position for a JSON array")
+    private List<LineError> errors = new ArrayList<>();
+
+    public void addError(int line, String message) {
+        failed++;
+        errors.add(new LineError(line, message));
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LineError {
+        private int line;
+        private String message;
+    }
+}
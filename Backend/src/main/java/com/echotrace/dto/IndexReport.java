@@ -0,0 +1,59 @@
+package com.echotrace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of the Mongo indexes declared by MongoIndexManager: which ones are missing, how the
+ * representative queries are planned, and which indexes have not been used since the server started.
+ */
+@Data
+@NoArgsConstructor
+public class IndexReport {
+
+    private Instant checkedAt = Instant.now();
+
+    // "collection.indexName" of every declared index that does not exist
+    private List<String> missing = new ArrayList<>();
+
+    private List<QueryPlan> queries = new ArrayList<>();
+
+    private List<IndexUsage> unused = new ArrayList<>();
+
+    public boolean isHealthy() {
+        return missing.isEmpty() && queries.stream().allMatch(QueryPlan::isOk);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class QueryPlan {
+        private String query;
+        private String collection;
+        private String expectedIndex;
+        // Indexes scanned by the winning plan, several for an $or answered branch by branch
+        private List<String> usedIndexes;
+        private boolean collectionScan;
+        private boolean ok;
+        // Set when explain itself failed
+        private String error;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class IndexUsage {
+        private String collection;
+        private String index;
+        private long ops;
+        // Usage counters restart with the mongod process, so ops only count from here
+        private Instant since;
+    }
+}
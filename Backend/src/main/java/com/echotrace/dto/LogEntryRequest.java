@@ -34,6 +34,10 @@ public class LogEntryRequest {
     @Schema(description = "Optional code snippet related to the problem", example = "if(user != null) { login(user); }")
     private String codeSnippet;
 
+    @Schema(description = "Version the update is based on, from the last read; the update is rejected with 409 "
+            + "if the log has changed since. Omit to apply the changed fields regardless")
+    private Long version;
+
     // New field for tracking files user wants to delete
     @Schema(description = "List of file names/paths to delete from this log")
     private List<String> filesToDelete = new ArrayList<>();
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -49,6 +50,18 @@ public class LogEntryResponse {
     @Schema(description = "All matched fields")
     private List<String> matchedOn;
 
+    @Schema(description = "Keyword occurrences per field as [start, end) character offsets; tags are keyed tags.<index>")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, List<int[]>> highlights;
+
     @Schema(description = "User who created the log")
     private String createdBy;
+
+    @Schema(description = "Version to send back with an update")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
+    @Schema(description = "Text search relevance, higher is better; only set for searchMode=text")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Float score;
 }
@@ -0,0 +1,56 @@
+package com.echotrace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@Schema(name = "LogEntrySummary", description = "List view of a log entry, without the heavy text fields")
+public class LogEntrySummary {
+
+    /** Maximum number of characters (code points) of the problem preview. */
+    public static final int PREVIEW_LENGTH = 200;
+
+    @Schema(description = "Unique identifier of the log entry")
+    private String id;
+
+    @Schema(description = "Title of the log entry")
+    private String title;
+
+    @Schema(description = "Tags for this log entry")
+    private List<String> tags;
+
+    @Schema(description = "Start of the problem description, at most " + PREVIEW_LENGTH + " characters")
+    private String preview;
+
+    @Schema(description = "Whether the problem description is longer than the preview")
+    private boolean previewTruncated;
+
+    @Schema(description = "Time when this entry was created")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Last updated timestamp")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "All matched fields")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> matchedOn;
+
+    @Schema(description = "Keyword occurrences per field as [start, end) character offsets; tags are keyed tags.<index>")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, List<int[]>> highlights;
+
+    @Schema(description = "User who created the log")
+    private String createdBy;
+
+    @Schema(description = "Text search relevance, higher is better; only set for searchMode=text")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Float score;
+}
@@ -0,0 +1,11 @@
+package com.echotrace.dto;
+
+/**
+ * How the filter endpoint matches the keyword.
+ */
+public enum SearchMode {
+    /** Case-insensitive regex (plain keywords: substring) match, narrowed by the in-memory search index when possible. */
+    REGEX,
+    /** Mongo text index: stemmed words, ranked by the weighted text score, best match first. */
+    TEXT
+}
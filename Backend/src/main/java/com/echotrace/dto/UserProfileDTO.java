@@ -21,4 +21,10 @@ public class UserProfileDTO {
 
     private boolean remindersEnabled;
 
+    @Schema(description = "Local time of the daily reminder, HH:mm", example = "20:00")
+    private String reminderTime;
+
+    @Schema(description = "IANA time zone of reminderTime", example = "Europe/Berlin")
+    private String timeZone;
+
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.echotrace.exception;
+
+public class InvalidReminderScheduleException extends RuntimeException {
+    public InvalidReminderScheduleException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.echotrace.exception;
+
+public class LogVersionConflictException extends RuntimeException {
+    public LogVersionConflictException(String message){
+        super(message);
+    }
+}
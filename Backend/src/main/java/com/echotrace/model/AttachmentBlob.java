@@ -0,0 +1,41 @@
+package com.echotrace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reference count of a content-addressed upload, see AttachmentBlobRepository. The id is the stored file name (sha256 hex + extension).
+ */
+@Document(collection = "attachment_blobs")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttachmentBlob {
+
+    @Id
+    private String id;
+
+    private long refCount;
+
+    private long size;
+
+    private LocalDateTime createdAt;
+
+    // Last upload that added a reference; the orphan sweep leaves recently referenced blobs alone
+    private LocalDateTime lastReferencedAt;
+
+    // Bumped by every increment and every delete claim, so a claim can tell whether an upload came in meanwhile
+    private long generation;
+
+    // Set while a node holds the claim to delete the file; uploads of the same content wait for it to clear
+    private LocalDateTime deletingSince;
+
+    // Ids of the latest releases, so a retried release does not drop a second reference
+    private List<String> releases;
+}
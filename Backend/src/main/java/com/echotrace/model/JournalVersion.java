@@ -0,0 +1,23 @@
+package com.echotrace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Counter of a user's log writes, the basis of the list ETags. The id is the username. Kept out of the user
+ * document so that saving a profile can never write an older value back.
+ */
+@Document(collection = "journal_versions")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JournalVersion {
+
+    @Id
+    private String id;
+
+    private long version;
+}
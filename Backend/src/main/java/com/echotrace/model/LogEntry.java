@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -44,8 +46,16 @@ public class LogEntry {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Incremented by every update; null on entries written before versioning
+    @Version
+    private Long version;
+
     private EmbeddedUser createdBy;
 
+    // Relevance of a searchMode=text match, only read back from text queries and never stored
+    @TextScore
+    private Float score;
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
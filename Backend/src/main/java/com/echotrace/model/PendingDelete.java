@@ -0,0 +1,35 @@
+package com.echotrace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One reference to an uploaded file that is no longer needed, waiting for AttachmentReclaimer to release it.
+ * A content-addressed blob shared by two deleted logs gets two entries, one per reference.
+ * The id is the release id, so a retried entry does not drop a second reference.
+ */
+@Document(collection = "pending_deletes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingDelete {
+
+    @Id
+    private String id;
+
+    private String filename;
+
+    private Instant enqueuedAt;
+
+    // Not picked up before this instant; pushed back after each failed attempt
+    private Instant notBefore;
+
+    private int attempts;
+
+    private String lastError;
+}
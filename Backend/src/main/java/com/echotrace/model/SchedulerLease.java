@@ -0,0 +1,26 @@
+package com.echotrace.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Time-bound ownership of a cluster-wide job. The id is the job name, the owner the node running it.
+ */
+@Document(collection = "scheduler_leases")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    private String id;
+
+    private String owner;
+
+    private Instant expiresAt;
+}
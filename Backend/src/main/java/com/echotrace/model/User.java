@@ -6,6 +6,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -38,4 +39,15 @@ public class User {
 
     private boolean remindersEnabled = true;
 
+    // Local wall-clock time (HH:mm) and IANA zone the user wants the reminder at
+    @Builder.Default
+    private String reminderTime = "20:00";
+
+    @Builder.Default
+    private String timeZone = "UTC";
+
+    // Next due instant, kept by ReminderScheduler; null while reminders are disabled.
+    // Sparse index declared in MongoIndexManager
+    private Instant nextReminderAt;
+
 }
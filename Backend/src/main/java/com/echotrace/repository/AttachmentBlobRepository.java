@@ -0,0 +1,144 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.AttachmentBlob;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Reference counts of content-addressed blobs, and the claims that serialize deleting a blob file across nodes.
+ *
+ * <p>A node deletes a file only while it holds the delete claim on its record. Every increment bumps the
+ * generation, so a claim that saw an upload come in is not allowed to remove the record, and an upload that
+ * finds a claim waits for it to end before it writes the file again.
+ */
+@Repository
+@AllArgsConstructor
+public class AttachmentBlobRepository {
+
+    /**
+     * How long a delete claim holds. A node that has not finished its delete by then is taken for dead and
+     * its claim may be taken over.
+     */
+    public static final Duration DELETE_CLAIM_TIMEOUT = Duration.ofMinutes(1);
+
+    // Release ids kept per blob; a retry comes within hours, long before this many other releases
+    private static final int MAX_RELEASES = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Atomically adds a reference to the blob, creating its record on first use.
+     *
+     * @return the record after the increment; a set deletingSince means a delete of the file is in flight
+     */
+    public AttachmentBlob increment(String name, long size) {
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(name)),
+                new Update().inc("refCount", 1)
+                        .inc("generation", 1)
+                        .set("lastReferencedAt", LocalDateTime.now())
+                        .setOnInsert("size", size)
+                        .setOnInsert("createdAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                AttachmentBlob.class);
+    }
+
+    /**
+     * Atomically drops the reference released under the given id. The id is recorded on the blob, so a retry
+     * of the same release does not drop a second reference.
+     *
+     * @return the remaining reference count, 0 if the name is not a tracked blob
+     */
+    public long decrement(String name, String releaseId) {
+        AttachmentBlob blob = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(name).and("refCount").gt(0).and("releases").ne(releaseId)),
+                new Update().inc("refCount", -1).push("releases").slice(-MAX_RELEASES).each(releaseId),
+                FindAndModifyOptions.options().returnNew(true),
+                AttachmentBlob.class);
+        if (blob == null) {
+            // Nothing left to drop, or an earlier attempt of this release already dropped it
+            blob = mongoTemplate.findById(name, AttachmentBlob.class);
+        }
+        return blob == null ? 0 : blob.getRefCount();
+    }
+
+    /**
+     * Claims the delete of a blob nothing references. A file without a record gets one, so an upload of the
+     * same content sees the claim.
+     *
+     * @return the claimed record, or null if the blob is referenced or another node is deleting it
+     */
+    public AttachmentBlob claimUnreferenced(String name) {
+        return claim(name, Criteria.where("refCount").not().gt(0));
+    }
+
+    /**
+     * Claims the delete of a file no log references, unless an upload added a reference after the cutoff:
+     * the log holding that reference may not be saved yet. Records from before lastReferencedAt count from
+     * their creation.
+     *
+     * @return the claimed record, or null if the blob was referenced after the cutoff or another node is
+     * deleting it
+     */
+    public AttachmentBlob claimNotReferencedSince(String name, LocalDateTime cutoff) {
+        return claim(name, new Criteria().orOperator(
+                Criteria.where("lastReferencedAt").lt(cutoff),
+                Criteria.where("lastReferencedAt").exists(false).and("createdAt").lt(cutoff)));
+    }
+
+    /**
+     * Ends a claim once the file is deleted. The record goes away unless an upload referenced the blob while
+     * it was claimed, in which case only the claim is lifted and the upload writes the file again.
+     *
+     * @return whether the record was removed
+     */
+    public boolean finishDelete(AttachmentBlob claim) {
+        boolean removed = mongoTemplate.remove(
+                new Query(Criteria.where("id").is(claim.getId()).and("generation").is(claim.getGeneration())),
+                AttachmentBlob.class).getDeletedCount() > 0;
+        if (!removed) {
+            abandonDelete(claim);
+        }
+        return removed;
+    }
+
+    /**
+     * Lifts a claim whose file could not be deleted, so uploads waiting on it go ahead.
+     */
+    public void abandonDelete(AttachmentBlob claim) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(claim.getId())),
+                new Update().unset("deletingSince"), AttachmentBlob.class);
+    }
+
+    public AttachmentBlob find(String name) {
+        return mongoTemplate.findById(name, AttachmentBlob.class);
+    }
+
+    private AttachmentBlob claim(String name, Criteria deletable) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(name),
+                deletable,
+                new Criteria().orOperator(
+                        Criteria.where("deletingSince").is(null),
+                        Criteria.where("deletingSince").lt(now.minus(DELETE_CLAIM_TIMEOUT)))));
+        try {
+            return mongoTemplate.findAndModify(query,
+                    new Update().set("deletingSince", now).inc("generation", 1),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    AttachmentBlob.class);
+        } catch (DuplicateKeyException e) {
+            // The record exists but is not deletable, so the upsert tried to insert a second one
+            return null;
+        }
+    }
+}
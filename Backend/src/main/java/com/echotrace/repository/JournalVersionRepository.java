@@ -0,0 +1,37 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.JournalVersion;
+import lombok.AllArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@AllArgsConstructor
+public class JournalVersionRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @return the user's journal version, 0 before the first write
+     */
+    public long current(String username) {
+        JournalVersion version = mongoTemplate.findById(username, JournalVersion.class);
+        return version == null ? 0 : version.getVersion();
+    }
+
+    /**
+     * Atomically increments the user's journal version, creating it on the first write.
+     */
+    public long bump(String username) {
+        JournalVersion version = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(username)),
+                new Update().inc("version", 1),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                JournalVersion.class);
+        return version == null ? 0 : version.getVersion();
+    }
+}
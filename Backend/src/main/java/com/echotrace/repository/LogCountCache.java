@@ -0,0 +1,40 @@
+package com.echotrace.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Recent filter counts per (user, journal version, normalized query). Every write, on any node, bumps the
+ * user's journal version, so a count cached before it is never read again and simply ages out.
+ */
+@Component
+public class LogCountCache {
+
+    private static final String KEY_SEPARATOR = "\u0000";
+
+    private final Cache<String, Long> counts;
+
+    public LogCountCache(@Value("${echotrace.search.count-cache.max-size:10000}") long maxSize,
+                         @Value("${echotrace.search.count-cache.ttl-ms:300000}") long ttlMs) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    public Long get(String username, long journalVersion, String normalizedQuery) {
+        return counts.getIfPresent(key(username, journalVersion, normalizedQuery));
+    }
+
+    public void put(String username, long journalVersion, String normalizedQuery, long count) {
+        counts.put(key(username, journalVersion, normalizedQuery), count);
+    }
+
+    private String key(String username, long journalVersion, String normalizedQuery) {
+        return username + KEY_SEPARATOR + journalVersion + KEY_SEPARATOR + normalizedQuery;
+    }
+}
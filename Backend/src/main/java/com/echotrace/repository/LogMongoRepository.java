@@ -1,24 +1,56 @@
 package com.echotrace.repository;
 
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.dto.SearchMode;
 import com.echotrace.model.LogEntry;
+import com.echotrace.util.PaginationUtil;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.AllArgsConstructor;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 @AllArgsConstructor
 public class LogMongoRepository {
 
     private final MongoTemplate mongoTemplate;
+    private final LogSearchIndex searchIndex;
+    private final LogCountCache countCache;
+    private final JournalVersionRepository journalVersions;
+
+    private static final int ESTIMATE_PAGES_AHEAD = 10;
+    private static final int STREAM_BATCH_SIZE = 500;
 
     public Page<LogEntry> filterLogs(
             String username,
@@ -28,7 +60,263 @@ public class LogMongoRepository {
             LocalDateTime afterDate,
             LocalDateTime betweenStart,
             LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            CountMode countMode,
+            boolean summary,
             Pageable pageable
+    ) {
+        List<Criteria> criteriaList = buildCriteria(
+                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode);
+        if (criteriaList == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        Query query = newQuery(keyword, searchMode, criteriaList);
+        if (query instanceof TextQuery textQuery) {
+            // Best match first; the requested sort only breaks ties
+            textQuery.sortByScore();
+        }
+        if (summary) {
+            projectSummary(query);
+        }
+
+        if (countMode == CountMode.NONE) {
+            // Read one extra entry instead of counting, just enough to know whether a next page exists
+            query.with(pageable).limit(pageable.getPageSize() + 1);
+            List<LogEntry> logs = mongoTemplate.find(query, LogEntry.class);
+            boolean hasNext = logs.size() > pageable.getPageSize();
+            if (hasNext) {
+                logs = logs.subList(0, pageable.getPageSize());
+            }
+            long total = pageable.getOffset() + logs.size() + (hasNext ? 1 : 0);
+            return new PageImpl<>(logs, pageable, total);
+        }
+
+        String normalizedQuery = normalize(keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode);
+        // Read before counting, so a write the count may have missed moves later readers to a new key
+        long journalVersion = journalVersions.current(username);
+        Long cachedTotal = countCache.get(username, journalVersion, normalizedQuery);
+
+        long total;
+        if (cachedTotal != null) {
+            total = cachedTotal;
+        } else if (countMode == CountMode.ESTIMATED) {
+            // Stop counting a few pages past the requested one; the result is a lower bound, so it is not cached
+            Query countQuery = Query.of(query)
+                    .limit((int) Math.min(Integer.MAX_VALUE,
+                            pageable.getOffset() + (long) pageable.getPageSize() * ESTIMATE_PAGES_AHEAD + 1));
+            total = mongoTemplate.count(countQuery, LogEntry.class);
+        } else {
+            total = mongoTemplate.count(query, LogEntry.class);
+            countCache.put(username, journalVersion, normalizedQuery, total);
+        }
+
+        query.with(pageable);
+        List<LogEntry> logs = mongoTemplate.find(query, LogEntry.class);
+
+        return new PageImpl<>(logs, pageable, total);
+    }
+
+    /**
+     * A text query for searchMode=text with a keyword, answered by the owner_text index and carrying the
+     * text score, otherwise a plain query over the criteria.
+     */
+    static Query newQuery(String keyword, SearchMode searchMode, List<Criteria> criteriaList) {
+        if (searchMode != SearchMode.TEXT || keyword == null || keyword.isEmpty()) {
+            return new Query(combine(criteriaList));
+        }
+        TextQuery query = new TextQuery(TextCriteria.forDefaultLanguage().matching(keyword));
+        query.includeScore();
+        if (!criteriaList.isEmpty()) {
+            query.addCriteria(combine(criteriaList));
+        }
+        return query;
+    }
+
+    /**
+     * Restricts the query to the fields of a list entry. solution, codeSnippet, referenceLinks and filePaths
+     * stay in Mongo, and problem is cut down server side to one code point more than the preview, so the
+     * mapper can tell whether it was truncated.
+     */
+    private void projectSummary(Query query) {
+        query.fields()
+                .include("title", "tags", "createdAt", "updatedAt", "createdBy")
+                .project(MongoExpression.create(
+                        "{ $substrCP: [ { $ifNull: ['$problem', ''] }, 0, " + (LogEntrySummary.PREVIEW_LENGTH + 1) + " ] }"))
+                .as("problem");
+    }
+
+    /**
+     * Keyset variant of filterLogs: returns up to limit logs strictly after the cursor in
+     * (createdAt desc, id desc) order. No count and no skip, so every page costs the same.
+     * With searchMode=text the keyword goes through the text index too, but slices stay in keyset order
+     * since a relevance order has no stable cursor; the score is still returned.
+     */
+    public List<LogEntry> filterLogsAfter(
+            String username,
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            PaginationUtil.Cursor after,
+            int limit,
+            boolean summary
+    ) {
+        List<Criteria> criteriaList = buildCriteria(
+                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode);
+        if (criteriaList == null) {
+            return List.of();
+        }
+
+        if (after != null) {
+            criteriaList.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(after.getCreatedAt()),
+                    Criteria.where("createdAt").is(after.getCreatedAt()).and("id").lt(after.getId())
+            ));
+        }
+
+        Query query = newQuery(keyword, searchMode, criteriaList)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit);
+        if (summary) {
+            projectSummary(query);
+        }
+        return mongoTemplate.find(query, LogEntry.class);
+    }
+
+    /**
+     * Streams every log of the user, oldest first, from a Mongo cursor instead of materializing a list.
+     * The caller must close the stream.
+     */
+    public Stream<LogEntry> streamByUsername(String username) {
+        Query query = new Query(Criteria.where("createdBy.username").is(username))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, LogEntry.class);
+    }
+
+    /**
+     * Every attachment name referenced by any log, for the orphan sweep. Reads only filePaths, of the logs
+     * that have attachments, from a cursor.
+     */
+    public Set<String> referencedFilePaths() {
+        Query query = new Query(Criteria.where("filePaths.0").exists(true))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("filePaths");
+        Set<String> referenced = new HashSet<>();
+        try (Stream<LogEntry> logs = mongoTemplate.stream(query, LogEntry.class)) {
+            logs.forEach(logEntry -> referenced.addAll(logEntry.getFilePaths()));
+        }
+        return referenced;
+    }
+
+    /**
+     * Applies the update and the attachment changes to the user's log in a single findAndModify, guarded by
+     * the expected version when one is given. Returns the log as it was right before the update, so the
+     * caller can tell which of the requested file removals actually happened, or null when no log matched
+     * id, owner and version.
+     */
+    public LogEntry updateOwned(String id, String username, Long expectedVersion, Update update,
+                                List<String> removedPaths, List<String> addedPaths) {
+        Criteria criteria = Criteria.where("id").is(id).and("createdBy.username").is(username);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return mongoTemplate.findAndModify(new Query(criteria),
+                withFilePaths(update, removedPaths, addedPaths, mongoTemplate.getConverter()),
+                FindAndModifyOptions.options().returnNew(false), LogEntry.class);
+    }
+
+    /**
+     * Deletes the user's log by id and owner, whatever its version, so a delete racing an update does not
+     * fail on the version check. Returns the log as it was when removed, with the attachments it held at
+     * that point, or null when no log matched id and owner.
+     */
+    public LogEntry removeOwned(String id, String username) {
+        return mongoTemplate.findAndRemove(
+                new Query(Criteria.where("id").is(id).and("createdBy.username").is(username)), LogEntry.class);
+    }
+
+    /**
+     * Adds the attachment changes to a $set/$inc field update. Mongo rejects $pull and $push on one field in
+     * one update, so when files are both removed and added the update becomes a single-stage pipeline that
+     * filters and appends filePaths in the same write. The pipeline declares the version it sets, so the
+     * template does not bump it a second time.
+     */
+    static UpdateDefinition withFilePaths(Update update, List<String> removedPaths, List<String> addedPaths,
+                                          MongoConverter converter) {
+        if (addedPaths.isEmpty()) {
+            return removedPaths.isEmpty() ? update : update.pullAll("filePaths", removedPaths.toArray());
+        }
+        if (removedPaths.isEmpty()) {
+            return update.push("filePaths").each(addedPaths.toArray());
+        }
+
+        Map<String, AggregationExpression> values = new LinkedHashMap<>();
+        update.getUpdateObject().forEach((operator, fields) -> {
+            for (Map.Entry<String, Object> field : ((Document) fields).entrySet()) {
+                if ("$set".equals(operator)) {
+                    // Literal, or a value like "$HOME" would be read as a field path
+                    Document literal = new Document("$literal", converter.convertToMongoType(field.getValue()));
+                    values.put(field.getKey(), context -> literal);
+                } else if ("$inc".equals(operator)) {
+                    Document sum = new Document("$add",
+                            List.of(new Document("$ifNull", List.of("$" + field.getKey(), 0)), field.getValue()));
+                    values.put(field.getKey(), context -> sum);
+                } else {
+                    throw new IllegalArgumentException("Unsupported update operator " + operator);
+                }
+            }
+        });
+        Document kept = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$filePaths", List.of())))
+                .append("as", "path")
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$path", new Document("$literal", removedPaths)))))));
+        Document filePaths = new Document("$concatArrays", List.of(kept, new Document("$literal", addedPaths)));
+        values.put("filePaths", context -> filePaths);
+
+        SetOperation set = null;
+        for (Map.Entry<String, AggregationExpression> value : values.entrySet()) {
+            set = set == null ? new SetOperation(value.getKey(), value.getValue()) : set.set(value.getKey(), value.getValue());
+        }
+        return AggregationUpdate.update().set(set);
+    }
+
+    /**
+     * Inserts the logs with a single unordered insertMany, so one bad document does not stop the rest.
+     *
+     * @return error message by position in entries for every document that was not inserted
+     */
+    public Map<Integer, String> insertUnordered(List<LogEntry> entries) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LogEntry.class)
+                    .insert(entries)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    /**
+     * Builds the AND-ed filter criteria, or returns null when the search index already proves
+     * that nothing can match. In text mode the keyword is left to the $text clause of newQuery.
+     */
+    private List<Criteria> buildCriteria(
+            String username,
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode
     ) {
         List<Criteria> criteriaList = new ArrayList<>();
 
@@ -38,15 +326,37 @@ public class LogMongoRepository {
         }
 
         // Keyword search in title, problem, solution, tags
-        if (keyword != null && !keyword.isEmpty()) {
-            criteriaList.add(new Criteria().orOperator(
-                    Criteria.where("title").regex(keyword, "i"),
-                    Criteria.where("problem").regex(keyword, "i"),
-                    Criteria.where("solution").regex(keyword, "i"),
-                    Criteria.where("tags").regex(keyword, "i")
-            ));
+        if (keyword != null && !keyword.isEmpty() && searchMode != SearchMode.TEXT) {
+            Set<String> matchingIds = (username != null && !username.isEmpty())
+                    ? searchIndex.search(username, keyword)
+                    : null;
+
+            if (matchingIds != null) {
+                // Narrowed by the inverted index, the regex then only runs over the candidate ids
+                if (matchingIds.isEmpty()) {
+                    return null;
+                }
+                criteriaList.add(Criteria.where("id").in(matchingIds));
+            }
+            criteriaList.add(keywordRegex(keyword));
         }
 
+        addTagAndDates(criteriaList, tag, beforeDate, afterDate, betweenStart, betweenEnd);
+        return criteriaList;
+    }
+
+    // Keyword search in title, problem, solution, tags
+    static Criteria keywordRegex(String keyword) {
+        return new Criteria().orOperator(
+                Criteria.where("title").regex(keyword, "i"),
+                Criteria.where("problem").regex(keyword, "i"),
+                Criteria.where("solution").regex(keyword, "i"),
+                Criteria.where("tags").regex(keyword, "i")
+        );
+    }
+
+    static void addTagAndDates(List<Criteria> criteriaList, String tag, LocalDateTime beforeDate,
+                               LocalDateTime afterDate, LocalDateTime betweenStart, LocalDateTime betweenEnd) {
         // Exact tag match
         if (tag != null && !tag.isEmpty()) {
             criteriaList.add(Criteria.where("tags").is(tag));
@@ -73,19 +383,22 @@ public class LogMongoRepository {
                     Criteria.where("updatedAt").gte(betweenStart).lte(betweenEnd)
             ));
         }
+    }
 
-        // Combine criteria with AND
+    private String normalize(String keyword, String tag, LocalDateTime beforeDate, LocalDateTime afterDate,
+                             LocalDateTime betweenStart, LocalDateTime betweenEnd, SearchMode searchMode) {
+        String normalizedKeyword = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        return String.join("|", String.valueOf(searchMode), normalizedKeyword, String.valueOf(tag),
+                String.valueOf(beforeDate), String.valueOf(afterDate),
+                String.valueOf(betweenStart), String.valueOf(betweenEnd));
+    }
+
+    // Combine criteria with AND
+    static Criteria combine(List<Criteria> criteriaList) {
         Criteria criteria = new Criteria();
         if (!criteriaList.isEmpty()) {
             criteria.andOperator(criteriaList.toArray(new Criteria[0]));
         }
-
-        Query query = new Query(criteria);
-        long total = mongoTemplate.count(query, LogEntry.class);
-
-        query.with(pageable);
-        List<LogEntry> logs = mongoTemplate.find(query, LogEntry.class);
-
-        return new PageImpl<>(logs, pageable, total);
+        return criteria;
     }
 }
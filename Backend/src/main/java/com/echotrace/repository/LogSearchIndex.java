@@ -0,0 +1,259 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.LogEntry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index (term -> log ids) over title, problem, solution and tags, kept per user. A second
+ * index from trigrams to the terms containing them finds the terms a token is a substring of, so a query reads
+ * only those terms' postings instead of scanning the vocabulary.
+ *
+ * A user's index is built from Mongo on a keyword search and stamped with the journal version it reflects.
+ * LogService applies its own writes together with the journal version they produced; any other gap, such as
+ * a write made on another node, leaves the stamp behind the shared journal version and the next search
+ * rebuilds the index. Indexes are held in a cache bounded by the total number of indexed logs and dropped
+ * after a period without searches.
+ */
+@Component
+public class LogSearchIndex {
+
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // A keyword with any of these is a real pattern, which tokens cannot narrow down
+    private static final Pattern REGEX_META = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    // Tokens shorter than this cannot be looked up by trigram and do not narrow a search
+    private static final int GRAM_LENGTH = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final JournalVersionRepository journalVersions;
+    private final Cache<String, UserIndex> indexes;
+
+    public LogSearchIndex(MongoTemplate mongoTemplate,
+                          JournalVersionRepository journalVersions,
+                          @Value("${echotrace.search.index.max-logs:200000}") long maxLogs,
+                          @Value("${echotrace.search.index.idle-ttl-ms:1800000}") long idleTtlMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.journalVersions = journalVersions;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxLogs)
+                .weigher((String username, UserIndex userIndex) -> Math.max(1, userIndex.size()))
+                .expireAfterAccess(Duration.ofMillis(idleTtlMs))
+                .build();
+    }
+
+    /**
+     * Applies a write of the user's logs that moved their journal to the given version. Users without a
+     * cached index are skipped, their next search loads one from Mongo.
+     */
+    public void index(String username, Collection<LogEntry> entries, long journalVersion) {
+        UserIndex userIndex = indexes.getIfPresent(username);
+        if (userIndex != null) {
+            userIndex.apply(entries, List.of(), journalVersion);
+        }
+    }
+
+    public void index(LogEntry entry, long journalVersion) {
+        if (entry.getCreatedBy() != null) {
+            index(entry.getCreatedBy().getUsername(), List.of(entry), journalVersion);
+        }
+    }
+
+    public void remove(String username, String logId, long journalVersion) {
+        UserIndex userIndex = indexes.getIfPresent(username);
+        if (userIndex != null) {
+            userIndex.apply(List.of(), List.of(logId), journalVersion);
+        }
+    }
+
+    /**
+     * Returns the ids of the user's logs that can contain the keyword: those where every token of the keyword
+     * of at least three characters is a substring of some indexed term. This is a superset of the substring
+     * matches, the caller still applies the keyword itself to the candidates. Returns null when the keyword
+     * has no such token or is a regex, and the caller has to fall back to a scan.
+     */
+    public Set<String> search(String username, String keyword) {
+        Set<String> queryTokens = tokenize(keyword);
+        queryTokens.removeIf(token -> token.length() < GRAM_LENGTH);
+        if (queryTokens.isEmpty() || REGEX_META.matcher(keyword).find()) {
+            return null;
+        }
+
+        long journalVersion = journalVersions.current(username);
+        UserIndex userIndex = indexes.getIfPresent(username);
+        if (userIndex == null || userIndex.journalVersion() < journalVersion) {
+            // Built outside any cache lock: two concurrent searches may both load, the later put wins
+            userIndex = load(username, journalVersion);
+            indexes.put(username, userIndex);
+        }
+        return userIndex.search(queryTokens);
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // The version is read before the scan, so a write the scan misses always leaves the stamp behind
+    private UserIndex load(String username, long journalVersion) {
+        Query query = new Query(Criteria.where("createdBy.username").is(username));
+        query.fields().include("title", "problem", "solution", "tags");
+
+        UserIndex userIndex = new UserIndex(journalVersion);
+        try (var entries = mongoTemplate.stream(query, LogEntry.class)) {
+            entries.forEach(entry -> userIndex.put(entry.getId(), tokensOf(entry)));
+        }
+        return userIndex;
+    }
+
+    private static Set<String> tokensOf(LogEntry entry) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(entry.getTitle()));
+        tokens.addAll(tokenize(entry.getProblem()));
+        tokens.addAll(tokenize(entry.getSolution()));
+        if (entry.getTags() != null) {
+            entry.getTags().forEach(tag -> tokens.addAll(tokenize(tag)));
+        }
+        return tokens;
+    }
+
+    private static class UserIndex {
+
+        private final Map<String, Set<String>> postings = new HashMap<>();
+
+        // Forward index so an update or delete only touches the postings the log was in
+        private final Map<String, Set<String>> termsByLog = new HashMap<>();
+
+        // Trigram -> indexed terms containing it, kept in step with the keys of postings
+        private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+        private long journalVersion;
+
+        UserIndex(long journalVersion) {
+            this.journalVersion = journalVersion;
+        }
+
+        synchronized long journalVersion() {
+            return journalVersion;
+        }
+
+        synchronized int size() {
+            return termsByLog.size();
+        }
+
+        /**
+         * Applies a local write. The stamp only moves when the write directly follows the indexed state;
+         * otherwise another write is missing and the stamp stays behind so the next search reloads.
+         */
+        synchronized void apply(Collection<LogEntry> entries, Collection<String> removedIds, long writeVersion) {
+            entries.forEach(entry -> put(entry.getId(), tokensOf(entry)));
+            removedIds.forEach(this::remove);
+            if (journalVersion == writeVersion - 1) {
+                journalVersion = writeVersion;
+            }
+        }
+
+        synchronized void put(String logId, Set<String> terms) {
+            remove(logId);
+            termsByLog.put(logId, terms);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, this::addTerm).add(logId);
+            }
+        }
+
+        synchronized void remove(String logId) {
+            Set<String> terms = termsByLog.remove(logId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Set<String> ids = postings.get(term);
+                if (ids != null) {
+                    ids.remove(logId);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                        removeTerm(term);
+                    }
+                }
+            }
+        }
+
+        synchronized Set<String> search(Set<String> queryTokens) {
+            Set<String> result = null;
+            for (String token : queryTokens) {
+                Set<String> matches = idsContaining(token);
+
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        // Substring, not prefix: "exception" has to find "nullpointerexception"
+        private Set<String> idsContaining(String token) {
+            Set<String> exact = postings.get(token);
+            Set<String> ids = exact != null ? new HashSet<>(exact) : new HashSet<>();
+            // Every term containing the token contains each of its trigrams; the rarest one gives the fewest to check
+            Set<String> candidates = null;
+            for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+                Set<String> terms = termsByGram.get(token.substring(i, i + GRAM_LENGTH));
+                if (terms == null) {
+                    return ids;
+                }
+                if (candidates == null || terms.size() < candidates.size()) {
+                    candidates = terms;
+                }
+            }
+            for (String term : candidates) {
+                if (term.length() > token.length() && term.contains(token)) {
+                    ids.addAll(postings.get(term));
+                }
+            }
+            return ids;
+        }
+
+        private Set<String> addTerm(String term) {
+            for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                termsByGram.computeIfAbsent(term.substring(i, i + GRAM_LENGTH), gram -> new HashSet<>()).add(term);
+            }
+            return new HashSet<>();
+        }
+
+        private void removeTerm(String term) {
+            for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                String gram = term.substring(i, i + GRAM_LENGTH);
+                Set<String> terms = termsByGram.get(gram);
+                if (terms != null) {
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
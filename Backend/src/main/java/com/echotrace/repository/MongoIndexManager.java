@@ -0,0 +1,322 @@
+package com.echotrace.repository;
+
+import com.echotrace.dto.IndexReport;
+import com.echotrace.model.LogEntry;
+import com.echotrace.model.PendingDelete;
+import com.echotrace.model.User;
+import com.mongodb.ExplainVerbosity;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the indexes of log_entries and users. They are created at startup (unless
+ * echotrace.mongo.auto-index=false, e.g. when index builds are rolled out by hand) and then checked
+ * against the queries the repositories issue: every representative query below is explained and must be
+ * answered by its index instead of a collection scan. The result is logged and served by the
+ * "mongoindexes" actuator endpoint.
+ */
+@Component
+public class MongoIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    static final String OWNER_CREATED_AT = "owner_createdAt";
+    static final String OWNER_TAGS = "owner_tags";
+    static final String OWNER_UPDATED_AT = "owner_updatedAt";
+    static final String OWNER_TEXT = "owner_text";
+    static final String USERNAME_UNIQUE = "username_unique";
+    // Name ensureIndex gave it before the index moved here, renaming would conflict with existing databases
+    static final String NEXT_REMINDER_AT = "nextReminderAt_1";
+    static final String PENDING_DELETE_DUE = "notBefore_1";
+
+    private static final List<DeclaredIndex> INDEXES = List.of(
+            // Listing, cursor pages, export and the search index load: owner equality, newest first
+            new DeclaredIndex(LogEntry.class, new Index()
+                    .on("createdBy.username", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC)
+                    .on("_id", Sort.Direction.DESC)
+                    .named(OWNER_CREATED_AT)),
+            new DeclaredIndex(LogEntry.class, new Index()
+                    .on("createdBy.username", Sort.Direction.ASC)
+                    .on("tags", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC)
+                    .named(OWNER_TAGS)),
+            // updatedAt branch of the date filters' createdAt/updatedAt $or
+            new DeclaredIndex(LogEntry.class, new Index()
+                    .on("createdBy.username", Sort.Direction.ASC)
+                    .on("updatedAt", Sort.Direction.DESC)
+                    .named(OWNER_UPDATED_AT)),
+            // searchMode=text. The owner prefix keeps each search inside the user's own entries, which also
+            // means every $text query has to pin createdBy.username
+            new DeclaredIndex(LogEntry.class, ownerTextIndex()),
+            new DeclaredIndex(User.class, new Index()
+                    .on("username", Sort.Direction.ASC)
+                    .unique()
+                    .named(USERNAME_UNIQUE)),
+            new DeclaredIndex(User.class, new Index()
+                    .on("nextReminderAt", Sort.Direction.ASC)
+                    .sparse()
+                    .named(NEXT_REMINDER_AT)),
+            // AttachmentReclaimer claims the oldest due entry
+            new DeclaredIndex(PendingDelete.class, new Index()
+                    .on("notBefore", Sort.Direction.ASC)
+                    .named(PENDING_DELETE_DUE))
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean autoIndex;
+
+    /**
+     * Weighted text index over the searchable fields behind an owner equality prefix. TextIndexDefinition
+     * cannot express the prefix, so keys and options are spelled out.
+     */
+    private static IndexDefinition ownerTextIndex() {
+        Document keys = new Document("createdBy.username", 1)
+                .append("title", "text")
+                .append("tags", "text")
+                .append("problem", "text")
+                .append("solution", "text")
+                .append("codeSnippet", "text");
+        Document options = new Document("name", OWNER_TEXT)
+                .append("default_language", "english")
+                .append("weights", new Document("title", 10)
+                        .append("tags", 5)
+                        .append("problem", 3)
+                        .append("solution", 2)
+                        .append("codeSnippet", 1));
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return keys;
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+
+    public MongoIndexManager(MongoTemplate mongoTemplate,
+                             @Value("${echotrace.mongo.auto-index:true}") boolean autoIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.autoIndex = autoIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (autoIndex) {
+            ensureIndexes();
+        }
+        IndexReport report = verify();
+        if (report.isHealthy()) {
+            log.info("Mongo indexes verified, {} queries use their index", report.getQueries().size());
+            return;
+        }
+        report.getMissing().forEach(index -> log.warn("Mongo index {} is missing", index));
+        report.getQueries().stream()
+                .filter(plan -> !plan.isOk())
+                .forEach(plan -> log.warn("Query '{}' on {} is not served by {} (used {}, collection scan {})",
+                        plan.getQuery(), plan.getCollection(), plan.getExpectedIndex(),
+                        plan.getUsedIndexes(), plan.isCollectionScan()));
+    }
+
+    public void ensureIndexes() {
+        for (DeclaredIndex declared : INDEXES) {
+            try {
+                mongoTemplate.indexOps(declared.entity).ensureIndex(declared.index);
+            } catch (RuntimeException e) {
+                // e.g. duplicate usernames block the unique index; keep going, verify() reports it as missing
+                log.error("Could not create Mongo index {}.{}: {}",
+                        collectionOf(declared.entity), declared.name(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compares the declared indexes with the collections, explains every representative query and
+     * lists indexes that have not served a single operation.
+     */
+    public IndexReport verify() {
+        IndexReport report = new IndexReport();
+
+        Set<String> collections = new LinkedHashSet<>();
+        for (DeclaredIndex declared : INDEXES) {
+            String collection = collectionOf(declared.entity);
+            collections.add(collection);
+            boolean exists = mongoTemplate.indexOps(declared.entity).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .anyMatch(declared.name()::equals);
+            if (!exists) {
+                report.getMissing().add(collection + "." + declared.name());
+            }
+        }
+
+        for (ProbeQuery probe : probeQueries()) {
+            report.getQueries().add(explain(probe));
+        }
+
+        for (String collection : collections) {
+            report.getUnused().addAll(unusedIndexes(collection));
+        }
+        return report;
+    }
+
+    /**
+     * The shapes of the queries LogMongoRepository, LogRepository, UserRepository, ReminderScheduler and
+     * PendingDeleteRepository issue, with placeholder values. Keep in sync when a query changes.
+     */
+    private List<ProbeQuery> probeQueries() {
+        String logs = collectionOf(LogEntry.class);
+        String users = collectionOf(User.class);
+        String pendingDeletes = collectionOf(PendingDelete.class);
+        String username = "index-probe";
+        Date date = new Date();
+        Document owner = new Document("createdBy.username", username);
+        Document newestFirst = new Document("createdAt", -1).append("_id", -1);
+
+        return List.of(
+                new ProbeQuery("logs of a user, newest first", logs,
+                        owner, new Document("createdAt", -1), OWNER_CREATED_AT),
+                new ProbeQuery("cursor page after (createdAt, id)", logs,
+                        new Document("$and", List.of(owner, new Document("$or", List.of(
+                                new Document("createdAt", new Document("$lt", date)),
+                                new Document("createdAt", date).append("_id", new Document("$lt", "id")))))),
+                        newestFirst, OWNER_CREATED_AT),
+                new ProbeQuery("filter by tag", logs,
+                        new Document("$and", List.of(owner, new Document("tags", "java"))),
+                        new Document("createdAt", -1), OWNER_TAGS),
+                new ProbeQuery("filter by date", logs,
+                        new Document("$and", List.of(owner, new Document("$or", List.of(
+                                new Document("createdAt", new Document("$gt", date)),
+                                new Document("updatedAt", new Document("$gt", date)))))),
+                        new Document("createdAt", -1), OWNER_CREATED_AT),
+                new ProbeQuery("text search", logs,
+                        new Document("createdBy.username", username)
+                                .append("$text", new Document("$search", "probe")),
+                        new Document("score", new Document("$meta", "textScore")), OWNER_TEXT),
+                new ProbeQuery("export stream, oldest first", logs,
+                        owner, new Document("createdAt", 1).append("_id", 1), OWNER_CREATED_AT),
+                new ProbeQuery("user by username", users,
+                        new Document("username", username), null, USERNAME_UNIQUE),
+                new ProbeQuery("due reminders", users,
+                        new Document("remindersEnabled", true).append("nextReminderAt", new Document("$lt", date)),
+                        null, NEXT_REMINDER_AT),
+                new ProbeQuery("due pending deletes", pendingDeletes,
+                        new Document("notBefore", new Document("$lte", date)),
+                        new Document("notBefore", 1), PENDING_DELETE_DUE)
+        );
+    }
+
+    private IndexReport.QueryPlan explain(ProbeQuery probe) {
+        try {
+            var find = mongoTemplate.getCollection(probe.collection).find(probe.filter);
+            if (probe.sort != null) {
+                find = find.sort(probe.sort);
+            }
+            Document explain = find.explain(ExplainVerbosity.QUERY_PLANNER);
+            Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+
+            Set<String> usedIndexes = new LinkedHashSet<>();
+            boolean collectionScan = collectStages(winningPlan, usedIndexes);
+            boolean ok = !collectionScan && usedIndexes.contains(probe.expectedIndex);
+            return new IndexReport.QueryPlan(probe.name, probe.collection, probe.expectedIndex,
+                    new ArrayList<>(usedIndexes), collectionScan, ok, null);
+        } catch (RuntimeException e) {
+            return new IndexReport.QueryPlan(probe.name, probe.collection, probe.expectedIndex,
+                    List.of(), false, false, e.getMessage());
+        }
+    }
+
+    /**
+     * Walks a winning plan and collects the names of the scanned indexes. Classic plans nest stages under
+     * inputStage/inputStages, slot-based ones under queryPlan, so every nested document is visited.
+     *
+     * @return whether any stage scans the whole collection
+     */
+    static boolean collectStages(Object node, Set<String> usedIndexes) {
+        boolean collectionScan = false;
+        if (node instanceof Map<?, ?> stage) {
+            Object name = stage.get("stage");
+            if ("COLLSCAN".equals(name)) {
+                collectionScan = true;
+            } else if ("IXSCAN".equals(name) && stage.get("indexName") instanceof String indexName) {
+                usedIndexes.add(indexName);
+            }
+            for (Object child : stage.values()) {
+                collectionScan |= collectStages(child, usedIndexes);
+            }
+        } else if (node instanceof Collection<?> children) {
+            for (Object child : children) {
+                collectionScan |= collectStages(child, usedIndexes);
+            }
+        }
+        return collectionScan;
+    }
+
+    private List<IndexReport.IndexUsage> unusedIndexes(String collection) {
+        try {
+            List<Document> stats = mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))
+                    .into(new ArrayList<>());
+            return stats.stream()
+                    .filter(stat -> !"_id_".equals(stat.getString("name")))
+                    .map(stat -> {
+                        Document accesses = stat.get("accesses", new Document());
+                        Number ops = accesses.get("ops", Number.class);
+                        Date since = accesses.getDate("since");
+                        return new IndexReport.IndexUsage(collection, stat.getString("name"),
+                                ops == null ? 0 : ops.longValue(), since == null ? null : since.toInstant());
+                    })
+                    .filter(usage -> usage.getOps() == 0)
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            // $indexStats needs the clusterMonitor role on some deployments, usage is then just not reported
+            log.debug("Could not read index usage of {}: {}", collection, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private String collectionOf(Class<?> entity) {
+        return mongoTemplate.getCollectionName(entity);
+    }
+
+    @AllArgsConstructor
+    private static class DeclaredIndex {
+        private final Class<?> entity;
+        private final IndexDefinition index;
+
+        String name() {
+            return index.getIndexOptions().getString("name");
+        }
+    }
+
+    @AllArgsConstructor
+    private static class ProbeQuery {
+        private final String name;
+        private final String collection;
+        private final Document filter;
+        private final Document sort;
+        private final String expectedIndex;
+    }
+}
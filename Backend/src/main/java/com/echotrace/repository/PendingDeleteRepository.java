@@ -0,0 +1,53 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.PendingDelete;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@AllArgsConstructor
+public class PendingDeleteRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public void enqueue(Collection<String> filenames, Instant now) {
+        List<PendingDelete> entries = filenames.stream()
+                .map(filename -> new PendingDelete(null, filename, now, now, 0, null))
+                .toList();
+        mongoTemplate.insert(entries, PendingDelete.class);
+    }
+
+    /**
+     * Removes and returns the oldest entry that is due. Taking it off the queue before the file is released
+     * means a crash can leak the file, which the orphan sweep reclaims, but never releases a reference twice.
+     *
+     * @return the entry, or null when nothing is due
+     */
+    public PendingDelete claimNext(Instant now) {
+        return mongoTemplate.findAndRemove(
+                new Query(Criteria.where("notBefore").lte(now)).with(Sort.by("notBefore")),
+                PendingDelete.class);
+    }
+
+    /**
+     * Puts a claimed entry back after a failed attempt.
+     */
+    public void retryLater(PendingDelete entry, Instant notBefore, String error) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setNotBefore(notBefore);
+        entry.setLastError(error);
+        mongoTemplate.insert(entry);
+    }
+
+    public long count() {
+        return mongoTemplate.count(new Query(), PendingDelete.class);
+    }
+}
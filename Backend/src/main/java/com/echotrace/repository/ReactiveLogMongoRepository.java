@@ -0,0 +1,98 @@
+package com.echotrace.repository;
+
+import com.echotrace.dto.SearchMode;
+import com.echotrace.model.LogEntry;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactive counterpart of LogMongoRepository. Results are emitted as the driver reads them and requested
+ * in batches as downstream demand arrives, so a slow client throttles the cursor instead of the server
+ * buffering a whole page or export.
+ *
+ * Keywords are matched in Mongo (regex or $text): the in-memory LogSearchIndex is kept up to date by
+ * LogService writes only, which this stack does not go through.
+ */
+@Repository
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveLogMongoRepository {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public Flux<LogEntry> filterLogs(
+            String username,
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            Pageable pageable
+    ) {
+        List<Criteria> criteriaList = new ArrayList<>();
+        criteriaList.add(Criteria.where("createdBy.username").is(username));
+        if (keyword != null && !keyword.isEmpty() && searchMode != SearchMode.TEXT) {
+            criteriaList.add(LogMongoRepository.keywordRegex(keyword));
+        }
+        LogMongoRepository.addTagAndDates(criteriaList, tag, beforeDate, afterDate, betweenStart, betweenEnd);
+
+        Query query = LogMongoRepository.newQuery(keyword, searchMode, criteriaList);
+        if (query instanceof TextQuery textQuery) {
+            textQuery.sortByScore();
+        }
+        return mongoTemplate.find(query.with(pageable), LogEntry.class);
+    }
+
+    /**
+     * Every log of the user, oldest first, in the order the blocking export writes them.
+     */
+    public Flux<LogEntry> streamByUsername(String username) {
+        Query query = new Query(Criteria.where("createdBy.username").is(username))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.find(query, LogEntry.class);
+    }
+
+    /**
+     * Same contract as LogMongoRepository.updateOwned: emits the log as it was before the update, or
+     * completes empty when no log matched id, owner and version.
+     */
+    public Mono<LogEntry> updateOwned(String id, String username, Long expectedVersion, Update update,
+                                      List<String> removedPaths, List<String> addedPaths) {
+        Criteria criteria = Criteria.where("id").is(id).and("createdBy.username").is(username);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return mongoTemplate.findAndModify(new Query(criteria),
+                LogMongoRepository.withFilePaths(update, removedPaths, addedPaths, mongoTemplate.getConverter()),
+                FindAndModifyOptions.options().returnNew(false), LogEntry.class);
+    }
+
+    /**
+     * Same contract as LogMongoRepository.removeOwned: emits the removed log, or completes empty when no log
+     * matched id and owner.
+     */
+    public Mono<LogEntry> removeOwned(String id, String username) {
+        return mongoTemplate.findAndRemove(
+                new Query(Criteria.where("id").is(id).and("createdBy.username").is(username)), LogEntry.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.LogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive counterpart of LogRepository, only registered with the "reactive" profile.
+ */
+@Repository
+public interface ReactiveLogRepository extends ReactiveMongoRepository<LogEntry, String> {
+
+    Flux<LogEntry> findByCreatedByUsername(String username, Pageable pageable);
+}
@@ -0,0 +1,48 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.SchedulerLease;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Repository
+@AllArgsConstructor
+public class SchedulerLeaseRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Takes or renews the lease in one atomic upsert. It succeeds when nobody holds the lease,
+     * the owner already holds it, or the previous owner's lease has expired.
+     *
+     * @return true if the owner holds the lease until now + ttl
+     */
+    public boolean tryAcquire(String name, String owner, Duration ttl, Instant now) {
+        Query query = new Query(Criteria.where("id").is(name).orOperator(
+                Criteria.where("owner").is(owner),
+                Criteria.where("expiresAt").lt(now)));
+        try {
+            SchedulerLease lease = mongoTemplate.findAndModify(
+                    query,
+                    new Update().set("owner", owner).set("expiresAt", now.plus(ttl)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    SchedulerLease.class);
+            return lease != null && owner.equals(lease.getOwner());
+        } catch (DuplicateKeyException e) {
+            // Held by another node: the filter missed and the upsert collided with its document
+            return false;
+        }
+    }
+
+    public void release(String name, String owner) {
+        mongoTemplate.remove(new Query(Criteria.where("id").is(name).and("owner").is(owner)), SchedulerLease.class);
+    }
+}
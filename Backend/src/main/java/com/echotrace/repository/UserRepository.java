@@ -4,7 +4,6 @@ import com.echotrace.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +13,4 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     boolean existsByUsername(String username);
 
-    List<User> findByRemindersEnabled(boolean enabled);
-
 }
@@ -1,6 +1,5 @@
 package com.echotrace.security;
 
-import com.echotrace.service.imp.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,7 +20,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
 
-    private final CustomUserDetailsService userDetailsService;
+    private final UserDetailsCache userDetailsCache;
 
 @Override
 protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -57,17 +56,14 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
         }
 
         String token = authHeader.substring(7);
-        String username = jwtUtil.extractUsername(token);
+        // Single parse: throws on a bad signature or an expired token
+        String username = jwtUtil.verify(token).getSubject();
 
         if (username == null || SecurityContextHolder.getContext().getAuthentication() != null) {
             throw new RuntimeException("Invalid JWT token");
         }
 
-        var userDetails = userDetailsService.loadUserByUsername(username);
-
-        if (!jwtUtil.validateToken(token)) {
-            throw new RuntimeException("Invalid JWT token");
-        }
+        var userDetails = userDetailsCache.get(username);
 
         UsernamePasswordAuthenticationToken authToken =
                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -1,30 +1,59 @@
 package com.echotrace.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final long expirationMs;
 
-    @Value("${jwt.expiration-ms}")
-    private long expirationMs;
+    private final long refreshExpirationMs;
 
-    @Value("${jwt.refresh-expiration-ms}")
-    private long refreshExpirationMs;
+    // Built once: the key derivation and parser setup used to be repeated on every call
+    private final Key signingKey;
 
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final JwtParser parser;
+
+    // SHA-256 digest of an already verified token -> its subject and expiry, null when disabled
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration-ms}") long expirationMs,
+                   @Value("${jwt.refresh-expiration-ms}") long refreshExpirationMs,
+                   @Value("${echotrace.security.token-cache.max-size:10000}") long tokenCacheMaxSize,
+                   @Value("${echotrace.security.token-cache.ttl-ms:600000}") long tokenCacheTtlMs) {
+        this.expirationMs = expirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = tokenCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(tokenCacheMaxSize)
+                        .expireAfterWrite(Duration.ofMillis(tokenCacheTtlMs))
+                        .build()
+                : null;
     }
+
     public String generateToken(String username){
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
@@ -33,7 +62,7 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -45,26 +74,67 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the token with a single parse and returns its subject and expiry.
+     * Tokens verified before are answered from the cache until they expire, without checking the HMAC again.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null || token == null) {
+            return parse(token);
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (cached.getExpiresAt() == null || cached.getExpiresAt().after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(digest);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + cached.getExpiresAt());
+        }
+
+        VerifiedToken verified = parse(token);
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
     public String extractUsername(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token){
         try{
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+            verify(token);
             return true;
         }catch(JwtException e){
             return false;
         }
     }
 
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration());
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final String subject;
+        private final Date expiresAt;
+    }
 }
@@ -0,0 +1,76 @@
+package com.echotrace.security;
+
+import lombok.AllArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates the STOMP CONNECT frame with the same bearer token as the REST API, so the session gets
+ * a principal and "/user/queue/..." destinations resolve to that user's sessions only.
+ * The SockJS handshake itself stays public; browsers cannot set headers on it.
+ *
+ * Clients may only subscribe to their own "/user/queue/..." destinations and only send to "/app/...". Plain
+ * "/topic" and "/queue" destinations are the broker's, and in relay mode carry the cluster's user registry
+ * and the reminders of users connected to other nodes.
+ */
+@Component
+@AllArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    private static final String APPLICATION_PREFIX = "/app/";
+
+    private final JwtUtil jwtUtil;
+
+    private final UserDetailsCache userDetailsCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            requireDestination(accessor, USER_QUEUE_PREFIX);
+            return message;
+        }
+        if (StompCommand.SEND.equals(accessor.getCommand())) {
+            requireDestination(accessor, APPLICATION_PREFIX);
+            return message;
+        }
+        if (!StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing or invalid Authorization header");
+        }
+
+        try {
+            String username = jwtUtil.verify(authHeader.substring(7)).getSubject();
+            var userDetails = userDetailsCache.get(username);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(
+                    userDetails.getUsername(), null, userDetails.getAuthorities()));
+        } catch (Exception e) {
+            throw new BadCredentialsException("Invalid JWT token", e);
+        }
+        return message;
+    }
+
+    private static void requireDestination(StompHeaderAccessor accessor, String prefix) {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(prefix)) {
+            throw new AccessDeniedException(accessor.getCommand() + " to " + destination + " is not allowed");
+        }
+    }
+}
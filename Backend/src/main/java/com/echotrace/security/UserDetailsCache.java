@@ -0,0 +1,43 @@
+package com.echotrace.security;
+
+import com.echotrace.service.imp.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicting cache of UserDetails used by JwtAuthFilter, so an authenticated request does not
+ * have to load the user from Mongo every time. UserService evicts an entry whenever the user changes.
+ * Hit, miss and eviction counts are published as the "userDetails" cache metrics.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final LoadingCache<String, UserDetails> cache;
+
+    public UserDetailsCache(CustomUserDetailsService userDetailsService,
+                            MeterRegistry meterRegistry,
+                            @Value("${echotrace.security.principal-cache.max-size:10000}") long maxSize,
+                            @Value("${echotrace.security.principal-cache.ttl-ms:300000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(userDetailsService::loadUserByUsername);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    public UserDetails get(String username) {
+        return cache.get(username);
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -1,13 +1,21 @@
 package com.echotrace.service;
 
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.CursorPage;
+import com.echotrace.dto.ImportResult;
 import com.echotrace.dto.LogEntryRequest;
 import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.dto.SearchMode;
 
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -18,16 +26,48 @@ public interface ILogService {
 
     LogEntryResponse getLogById(String id);
 
+    String getLogETag(String id);
+
+    String getJournalETag();
+
     Page<LogEntryResponse> getAllLogs(int page, int size, String sort);
 
+    CursorPage<LogEntryResponse> getAllLogs(String after, int size);
+
+    Page<LogEntrySummary> getLogSummaries(int page, int size, String sort);
+
+    CursorPage<LogEntrySummary> getLogSummaries(String after, int size);
+
     LogEntryResponse updateLog(String id, LogEntryRequest request, List<MultipartFile> files);
 
     void deleteLog(String id);
 
+    void exportLogs(OutputStream outputStream) throws IOException;
+
+    ImportResult importLogs(InputStream inputStream) throws IOException;
+
     Page<LogEntryResponse> filterLogs(
             String keyword, String tag,
             LocalDateTime beforeDate, LocalDateTime afterDate,
             LocalDateTime betweenStart, LocalDateTime betweenEnd,
-            int page, int size, String sort);
+            SearchMode searchMode, CountMode countMode, int page, int size, String sort);
+
+    CursorPage<LogEntryResponse> filterLogs(
+            String keyword, String tag,
+            LocalDateTime beforeDate, LocalDateTime afterDate,
+            LocalDateTime betweenStart, LocalDateTime betweenEnd,
+            SearchMode searchMode, String after, int size);
+
+    Page<LogEntrySummary> filterLogSummaries(
+            String keyword, String tag,
+            LocalDateTime beforeDate, LocalDateTime afterDate,
+            LocalDateTime betweenStart, LocalDateTime betweenEnd,
+            SearchMode searchMode, CountMode countMode, int page, int size, String sort);
+
+    CursorPage<LogEntrySummary> filterLogSummaries(
+            String keyword, String tag,
+            LocalDateTime beforeDate, LocalDateTime afterDate,
+            LocalDateTime betweenStart, LocalDateTime betweenEnd,
+            SearchMode searchMode, String after, int size);
 
 }
@@ -0,0 +1,35 @@
+package com.echotrace.service;
+
+import com.echotrace.dto.LogEntryRequest;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.SearchMode;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking variant of ILogService for the "reactive" profile. Lists are streamed rather than returned as
+ * a Page, so there is no total count.
+ */
+public interface IReactiveLogService {
+
+    Mono<LogEntryResponse> createLog(LogEntryRequest request, Flux<FilePart> files);
+
+    Mono<LogEntryResponse> getLogById(String id);
+
+    Flux<LogEntryResponse> getAllLogs(int page, int size, String sort);
+
+    Flux<LogEntryResponse> filterLogs(
+            String keyword, String tag,
+            LocalDateTime beforeDate, LocalDateTime afterDate,
+            LocalDateTime betweenStart, LocalDateTime betweenEnd,
+            SearchMode searchMode, int page, int size, String sort);
+
+    Flux<LogEntryResponse> exportLogs();
+
+    Mono<LogEntryResponse> updateLog(String id, LogEntryRequest request, Flux<FilePart> files);
+
+    Mono<Void> deleteLog(String id);
+}
@@ -0,0 +1,251 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.model.PendingDelete;
+import com.echotrace.repository.LogMongoRepository;
+import com.echotrace.repository.PendingDeleteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes attachments outside of the request that let go of them.
+ *
+ * <p>Requests only queue the files in pending_deletes. The holder of the "attachment-deletes" lease drains the
+ * queue in batches; a file that cannot be deleted is retried with exponential backoff and given up after the
+ * last attempt.
+ *
+ * <p>Whatever slips through (a crash between the log write and the queue insert, an abandoned retry, uploads
+ * from before the queue existed) is reclaimed by a periodic mark-and-sweep run by the holder of the
+ * "attachment-sweep" lease: it marks every file name referenced by a log, then walks the attachment store and
+ * deletes unmarked files. Files younger than the minimum age are skipped, so an upload whose log is not saved
+ * yet is never taken for an orphan. Staged uploads older than that age are purged on the same run.
+ *
+ * <p>Published as attachments.deletes.pending / .completed / .failed and attachments.sweep.scanned / .orphans /
+ * .reclaimed / .reclaimed.bytes / .duration.
+ */
+@Component
+public class AttachmentReclaimer {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentReclaimer.class);
+
+    static final String DELETES_JOB = "attachment-deletes";
+    static final String SWEEP_JOB = "attachment-sweep";
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final int PROGRESS_LOG_INTERVAL = 10_000;
+
+    private final PendingDeleteRepository pendingDeletes;
+    private final LogMongoRepository logMongoRepository;
+    private final FileStorageService fileStorageService;
+    private final LeaderElection leaderElection;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration sweepMinAge;
+    private final Clock clock;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter deleted;
+    private final Counter failed;
+    // Files looked at so far by the running sweep, or by the last one once it is done
+    private final AtomicLong sweepScanned = new AtomicLong();
+    private final AtomicLong sweepOrphans = new AtomicLong();
+    private final Counter sweepReclaimed;
+    private final Counter sweepReclaimedBytes;
+    private final Timer sweepDuration;
+
+    @Autowired
+    public AttachmentReclaimer(PendingDeleteRepository pendingDeletes,
+                               LogMongoRepository logMongoRepository,
+                               FileStorageService fileStorageService,
+                               LeaderElection leaderElection,
+                               MeterRegistry meterRegistry,
+                               @Value("${echotrace.storage.deletes.batch-size:100}") int batchSize,
+                               @Value("${echotrace.storage.deletes.max-attempts:8}") int maxAttempts,
+                               @Value("${echotrace.storage.deletes.retry-backoff-ms:30000}") long retryBackoffMs,
+                               @Value("${echotrace.storage.sweep.min-age-ms:86400000}") long sweepMinAgeMs) {
+        this(pendingDeletes, logMongoRepository, fileStorageService, leaderElection, meterRegistry,
+                batchSize, maxAttempts, retryBackoffMs, sweepMinAgeMs, Clock.systemUTC());
+    }
+
+    AttachmentReclaimer(PendingDeleteRepository pendingDeletes, LogMongoRepository logMongoRepository,
+                        FileStorageService fileStorageService, LeaderElection leaderElection,
+                        MeterRegistry meterRegistry, int batchSize, int maxAttempts, long retryBackoffMs,
+                        long sweepMinAgeMs, Clock clock) {
+        this.pendingDeletes = pendingDeletes;
+        this.logMongoRepository = logMongoRepository;
+        this.fileStorageService = fileStorageService;
+        this.leaderElection = leaderElection;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.sweepMinAge = Duration.ofMillis(sweepMinAgeMs);
+        this.clock = clock;
+
+        Gauge.builder("attachments.deletes.pending", pending, AtomicLong::get)
+                .description("Queued attachment deletes, as of the last worker run")
+                .register(meterRegistry);
+        this.deleted = Counter.builder("attachments.deletes.completed").register(meterRegistry);
+        this.failed = Counter.builder("attachments.deletes.failed")
+                .description("Failed delete attempts, each retried until the last one")
+                .register(meterRegistry);
+        Gauge.builder("attachments.sweep.scanned", sweepScanned, AtomicLong::get)
+                .description("Files checked by the running or last orphan sweep")
+                .register(meterRegistry);
+        Gauge.builder("attachments.sweep.orphans", sweepOrphans, AtomicLong::get)
+                .description("Unreferenced files found by the running or last orphan sweep")
+                .register(meterRegistry);
+        this.sweepReclaimed = Counter.builder("attachments.sweep.reclaimed").register(meterRegistry);
+        this.sweepReclaimedBytes = Counter.builder("attachments.sweep.reclaimed.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("attachments.sweep.duration").register(meterRegistry);
+    }
+
+    /**
+     * Queues the files for the worker, so the caller does not wait for the disk. If the queue cannot be
+     * written either, the files stay on disk until the sweep finds them.
+     */
+    public void scheduleDelete(Collection<String> filenames) {
+        if (filenames == null || filenames.isEmpty()) {
+            return;
+        }
+        try {
+            pendingDeletes.enqueue(filenames, clock.instant());
+        } catch (RuntimeException e) {
+            log.warn("Could not queue {} for deletion, leaving it to the orphan sweep", filenames, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${echotrace.storage.deletes.interval-ms:5000}")
+    public void processPendingDeletes() {
+        if (!leaderElection.isLeader(DELETES_JOB)) {
+            return;
+        }
+        int processed;
+        do {
+            processed = processBatch();
+            // Renews the lease on every full batch, so a long backlog does not outlive it
+        } while (processed == batchSize && leaderElection.isLeader(DELETES_JOB));
+        pending.set(pendingDeletes.count());
+    }
+
+    /**
+     * Claims and releases up to one batch of due entries.
+     *
+     * @return how many entries were claimed
+     */
+    int processBatch() {
+        Instant now = clock.instant();
+        int claimed = 0;
+        while (claimed < batchSize) {
+            PendingDelete entry = pendingDeletes.claimNext(now);
+            if (entry == null) {
+                break;
+            }
+            claimed++;
+            try {
+                fileStorageService.releaseFile(entry.getFilename(), entry.getId());
+                deleted.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                retryOrGiveUp(entry, now, e);
+            }
+        }
+        return claimed;
+    }
+
+    private void retryOrGiveUp(PendingDelete entry, Instant now, Exception error) {
+        if (entry.getAttempts() + 1 >= maxAttempts) {
+            log.error("Giving up on deleting {} after {} attempts, leaving it to the orphan sweep",
+                    entry.getFilename(), maxAttempts, error);
+            return;
+        }
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(entry.getAttempts(), 16));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        log.warn("Could not delete {}, retrying in {}s", entry.getFilename(), backoff.toSeconds(), error);
+        pendingDeletes.retryLater(entry, now.plus(backoff), error.toString());
+    }
+
+    @Scheduled(cron = "${echotrace.storage.sweep.cron:0 30 3 * * *}")
+    public void sweep() {
+        if (!leaderElection.isLeader(SWEEP_JOB)) {
+            return;
+        }
+        try {
+            SweepResult result = sweepDuration.recordCallable(this::sweepOrphans);
+            log.info("Orphan sweep checked {} files and reclaimed {} of {} orphans ({} bytes)",
+                    result.getScanned(), result.getReclaimed(), result.getOrphans(), result.getReclaimedBytes());
+        } catch (Exception e) {
+            log.error("Orphan sweep failed after checking {} files", sweepScanned.get(), e);
+        }
+    }
+
+    /**
+     * Marks every referenced file name, then deletes the files old enough to be swept that carry no mark.
+     * The mark is read before the folder is walked, so a file attached after the mark is at most as old as
+     * its upload and younger than the minimum age.
+     */
+    SweepResult sweepOrphans() throws IOException {
+        Instant cutoff = clock.instant().minus(sweepMinAge);
+        Set<String> referenced = logMongoRepository.referencedFilePaths();
+        log.info("Orphan sweep started, {} files referenced", referenced.size());
+
+        sweepScanned.set(0);
+        sweepOrphans.set(0);
+        long[] reclaimed = new long[2];
+        fileStorageService.scanStoredFiles(cutoff, (filename, size) -> {
+            long scanned = sweepScanned.incrementAndGet();
+            if (scanned % PROGRESS_LOG_INTERVAL == 0) {
+                log.info("Orphan sweep checked {} files, {} orphans so far", scanned, sweepOrphans.get());
+            }
+            if (referenced.contains(filename)) {
+                return;
+            }
+            sweepOrphans.incrementAndGet();
+            try {
+                if (fileStorageService.deleteOrphan(filename, cutoff)) {
+                    reclaimed[0]++;
+                    reclaimed[1] += size;
+                    sweepReclaimed.increment();
+                    sweepReclaimedBytes.increment(size);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not reclaim orphaned file {}", filename, e);
+            }
+        });
+        int purged = fileStorageService.purgeStaging(cutoff);
+        if (purged > 0) {
+            log.info("Orphan sweep purged {} abandoned staged uploads", purged);
+        }
+        return new SweepResult(sweepScanned.get(), sweepOrphans.get(), reclaimed[0], reclaimed[1]);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class SweepResult {
+        private final long scanned;
+        private final long orphans;
+        private final long reclaimed;
+        private final long reclaimedBytes;
+    }
+}
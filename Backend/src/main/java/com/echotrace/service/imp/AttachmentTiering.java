@@ -0,0 +1,134 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.storage.StoredObject;
+import com.echotrace.storage.TieredAttachmentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evicts attachments nobody has read for the cold-after age from this node's hot tier, with
+ * echotrace.storage.backend=tiered. Every upload is already in the cold tier, so eviction only drops the local
+ * copy. Each node caches on its own disk, so unlike the orphan sweep this runs on every node, not on a lease
+ * holder. At most max-per-run files are demoted per run so that a first run over a large backlog stays short;
+ * the next runs pick up the rest.
+ *
+ * <p>The first run on a node copies the hot files stored before uploads were written through to the cold
+ * tier, see TieredAttachmentStore.copyHotOnlyFiles.
+ *
+ * <p>Published as attachments.tiering.demoted / .demoted.bytes / .failed / .duration.
+ */
+@Component
+@ConditionalOnProperty(name = "echotrace.storage.backend", havingValue = "tiered")
+public class AttachmentTiering {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentTiering.class);
+
+    private final TieredAttachmentStore store;
+    private final Duration coldAfter;
+    private final int maxPerRun;
+    private final Clock clock;
+
+    private final Counter demoted;
+    private final Counter demotedBytes;
+    private final Counter failed;
+    private final Timer duration;
+
+    @Autowired
+    public AttachmentTiering(TieredAttachmentStore store,
+                             MeterRegistry meterRegistry,
+                             @Value("${echotrace.storage.tiering.cold-after-ms:2592000000}") long coldAfterMs,
+                             @Value("${echotrace.storage.tiering.max-per-run:10000}") int maxPerRun) {
+        this(store, meterRegistry, coldAfterMs, maxPerRun, Clock.systemUTC());
+    }
+
+    AttachmentTiering(TieredAttachmentStore store, MeterRegistry meterRegistry, long coldAfterMs, int maxPerRun,
+                      Clock clock) {
+        this.store = store;
+        this.coldAfter = Duration.ofMillis(coldAfterMs);
+        this.maxPerRun = maxPerRun;
+        this.clock = clock;
+
+        this.demoted = Counter.builder("attachments.tiering.demoted").register(meterRegistry);
+        this.demotedBytes = Counter.builder("attachments.tiering.demoted.bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.failed = Counter.builder("attachments.tiering.failed").register(meterRegistry);
+        this.duration = Timer.builder("attachments.tiering.duration").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${echotrace.storage.tiering.cron:0 0 4 * * *}")
+    public void demoteColdFiles() {
+        try {
+            if (!store.isWriteThroughComplete()) {
+                log.info("Copied {} hot-only attachments to the cold tier", store.copyHotOnlyFiles());
+            }
+            TieringResult result = duration.recordCallable(this::demote);
+            log.info("Attachment tiering found {} cold files and demoted {} ({} bytes)",
+                    result.getCold(), result.getDemoted(), result.getDemotedBytes());
+        } catch (Exception e) {
+            log.error("Attachment tiering failed", e);
+        }
+    }
+
+    /**
+     * Lists the hot files last read before the cutoff, then demotes up to max-per-run of them in listing
+     * order.
+     */
+    TieringResult demote() throws IOException {
+        Instant cutoff = clock.instant().minus(coldAfter);
+        List<StoredObject> candidates = new ArrayList<>();
+        long[] cold = new long[1];
+        store.getHotTier().forEach(object -> {
+            // Leftover temp files from before staging had its own folder belong to the orphan sweep
+            if (object.getName().startsWith(".") || !object.getLastModified().isBefore(cutoff)) {
+                return;
+            }
+            cold[0]++;
+            if (candidates.size() < maxPerRun) {
+                candidates.add(object);
+            }
+        });
+
+        long moved = 0;
+        long bytes = 0;
+        for (StoredObject object : candidates) {
+            try {
+                if (store.demote(object)) {
+                    moved++;
+                    bytes += object.getSize();
+                    demoted.increment();
+                    demotedBytes.increment(object.getSize());
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                log.warn("Could not demote {} to the cold tier", object.getName(), e);
+            }
+        }
+        return new TieringResult(cold[0], moved, bytes);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class TieringResult {
+        private final long cold;
+        private final long demoted;
+        private final long demotedBytes;
+    }
+}
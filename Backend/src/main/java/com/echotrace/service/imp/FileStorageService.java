@@ -1,42 +1,179 @@
 package com.echotrace.service.imp;
 
+import com.echotrace.exception.FileStorageException;
+import com.echotrace.model.AttachmentBlob;
+import com.echotrace.repository.AttachmentBlobRepository;
+import com.echotrace.storage.AttachmentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
+/**
+ * Names, stores and releases attachments. Uploads are written to the store's staging folder first and then
+ * handed to the {@link AttachmentStore} selected by echotrace.storage.backend, which owns where the bytes live.
+ */
 @Service
 public class FileStorageService {
-    private final Path uploadDir = Paths.get("src/main/resources/static/uploads");
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
 
-    public FileStorageService() {
-        try {
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
+    private final AttachmentStore attachmentStore;
+
+    private final AttachmentBlobRepository blobRepository;
+
+    private final TaskExecutor attachmentExecutor;
+
+    // When enabled, uploads are stored once under their SHA-256 and shared through a reference count
+    private final boolean contentAddressed;
+
+    // How often an upload checks whether a delete of the same content has finished
+    private static final long DELETE_POLL_MILLIS = 50;
+
+    public FileStorageService(AttachmentStore attachmentStore,
+                              AttachmentBlobRepository blobRepository,
+                              @Qualifier("attachmentExecutor") TaskExecutor attachmentExecutor,
+                              @Value("${echotrace.storage.content-addressed:false}") boolean contentAddressed) {
+        this.attachmentStore = attachmentStore;
+        this.blobRepository = blobRepository;
+        this.attachmentExecutor = attachmentExecutor;
+        this.contentAddressed = contentAddressed;
+    }
+
+    /**
+     * Stores the files in parallel on the attachment executor and returns their names in upload order.
+     * Waits for every file; if any of them failed, the ones that were stored are released again and the
+     * first failure is thrown, so a rejected upload leaves nothing behind.
+     */
+    public List<String> saveFiles(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+        if (files.size() == 1) {
+            return List.of(saveFile(files.get(0)));
+        }
+
+        List<CompletableFuture<String>> saves = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> saveFile(file), attachmentExecutor))
+                .toList();
+        List<String> storedPaths = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<String> save : saves) {
+            try {
+                storedPaths.add(save.join());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new FileStorageException("Failed to store file", e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not initialize uploads folder", e);
         }
+        if (failure != null) {
+            releaseQuietly(storedPaths);
+            throw failure;
+        }
+        return storedPaths;
     }
 
     public String saveFile(MultipartFile file) {
+        if (contentAddressed) {
+            try (InputStream content = file.getInputStream()) {
+                return saveContentAddressed(file.getOriginalFilename(), content);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store file", e);
+            }
+        }
+        Path staged = stagingFile();
         try {
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = getFileExtension(originalFileName);
+            String newFileName = UUID.randomUUID().toString() + "." + getFileExtension(file.getOriginalFilename());
+            // Moves the container's spool file when it sits on the same file system, copies otherwise
+            file.transferTo(staged.toFile());
+            attachmentStore.put(newFileName, staged);
+            return newFileName;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        } finally {
+            deleteStaged(staged);
+        }
+    }
+
+    /**
+     * Stores an upload that is not a MultipartFile, e.g. a WebFlux file part spooled to disk.
+     * The caller closes the stream.
+     */
+    public String saveFile(String originalFilename, InputStream content) {
+        if (contentAddressed) {
+            return saveContentAddressed(originalFilename, content);
+        }
+        Path staged = stagingFile();
+        try {
+            String fileExtension = getFileExtension(originalFilename);
             String newFileName = UUID.randomUUID().toString() + "." + fileExtension;
 
-            Path targetPath = uploadDir.resolve(newFileName);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(content, staged);
+            attachmentStore.put(newFileName, staged);
             return newFileName;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file", e);
+        } finally {
+            deleteStaged(staged);
+        }
+    }
+
+    private String saveContentAddressed(String originalFilename, InputStream content) {
+        String fileExtension = getFileExtension(originalFilename);
+        Path tempPath = stagingFile();
+        try {
+            // Hash while copying, so the payload is read exactly once
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, tempPath);
+            }
+            String blobName = HexFormat.of().formatHex(digest.digest()) + "." + fileExtension;
+
+            AttachmentBlob blob = blobRepository.increment(blobName, size);
+            if (blob.getDeletingSince() != null) {
+                // A node is deleting the file: the reference keeps the record, the file is written once it is gone
+                awaitDelete(blobName, blob.getDeletingSince());
+                attachmentStore.put(blobName, tempPath);
+            } else if (attachmentStore.stat(blobName).isEmpty()) {
+                // Not yet stored by an earlier upload or another node
+                attachmentStore.put(blobName, tempPath);
+            }
+            return blobName;
+
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new FileStorageException("Failed to store file", e);
+        } finally {
+            deleteStaged(tempPath);
         }
     }
 
@@ -49,22 +186,140 @@ public class FileStorageService {
 
 
 
-    public Path loadFile(String filename){
-        return uploadDir.resolve(filename)
-                .normalize();
+    /**
+     * Drops one reference to the file and deletes it from the store once nothing references it.
+     * Files stored before content addressing was enabled have no reference count and are deleted directly.
+     * A file that is already gone is ignored.
+     */
+    public void releaseFile(String filename) throws IOException {
+        releaseFile(filename, UUID.randomUUID().toString());
     }
 
-    public void deleteFile(String filename){
-        try{
-            Path filePath = uploadDir.resolve(filename).normalize();
-            if(Files.exists(filePath)){
-                Files.delete(filePath);
-            }else{
-                throw new IOException("File not found: " + filename);
+    /**
+     * Same as {@link #releaseFile(String)}, for a release that may be retried: a reference released under
+     * the same id is only dropped once, and a retry after a failed delete tries the delete again.
+     */
+    public void releaseFile(String filename, String releaseId) throws IOException {
+        if (!contentAddressed) {
+            attachmentStore.delete(filename);
+            return;
+        }
+        if (blobRepository.decrement(filename, releaseId) > 0) {
+            return;
+        }
+        AttachmentBlob claim = blobRepository.claimUnreferenced(filename);
+        if (claim != null) {
+            deleteClaimed(claim);
+        }
+    }
+
+    /**
+     * Visits every stored file last modified before the given instant, with its size. The staging folder is
+     * not included, see {@link #purgeStaging}.
+     */
+    public void scanStoredFiles(Instant modifiedBefore, BiConsumer<String, Long> visitor) throws IOException {
+        attachmentStore.forEach(object -> {
+            if (object.getLastModified().isBefore(modifiedBefore)) {
+                visitor.accept(object.getName(), object.getSize());
+            }
+        });
+    }
+
+    /**
+     * Deletes staged files last modified before the given instant: temp files of uploads interrupted by a
+     * crash, and multipart spool files the container did not get to remove. No upload stays staged for long.
+     *
+     * @return how many files were deleted
+     */
+    public int purgeStaging(Instant modifiedBefore) throws IOException {
+        int purged = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(attachmentStore.stagingDir())) {
+            for (Path file : files) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile() && attributes.lastModifiedTime().toInstant().isBefore(modifiedBefore)
+                            && Files.deleteIfExists(file)) {
+                        purged++;
+                    }
+                } catch (IOException e) {
+                    // Moved into the store while the folder was being listed
+                }
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Deletes a stored file that no log references, as found by the orphan sweep. A content-addressed blob that
+     * an upload referenced after the cutoff is kept, since the log of that upload may still be on its way.
+     *
+     * @return whether the file was deleted
+     */
+    public boolean deleteOrphan(String filename, Instant referencedBefore) throws IOException {
+        AttachmentBlob claim = blobRepository.claimNotReferencedSince(
+                filename, LocalDateTime.ofInstant(referencedBefore, ZoneId.systemDefault()));
+        return claim != null && deleteClaimed(claim);
+    }
+
+    /**
+     * Deletes the file of a claimed blob and ends the claim. A failed delete lifts the claim, so the blob can
+     * be claimed again by a retry and uploads waiting on it go ahead.
+     */
+    private boolean deleteClaimed(AttachmentBlob claim) throws IOException {
+        boolean deleted;
+        try {
+            deleted = attachmentStore.delete(claim.getId());
+        } catch (IOException | RuntimeException e) {
+            blobRepository.abandonDelete(claim);
+            throw e;
+        }
+        blobRepository.finishDelete(claim);
+        return deleted;
+    }
+
+    /**
+     * Waits until no node holds the delete claim on the blob any more. A claim older than
+     * {@link AttachmentBlobRepository#DELETE_CLAIM_TIMEOUT} belongs to a node that died mid-delete and is not
+     * waited for.
+     */
+    private void awaitDelete(String blobName, LocalDateTime deletingSince) {
+        LocalDateTime expires = deletingSince.plus(AttachmentBlobRepository.DELETE_CLAIM_TIMEOUT);
+        try {
+            while (LocalDateTime.now().isBefore(expires)) {
+                Thread.sleep(DELETE_POLL_MILLIS);
+                AttachmentBlob blob = blobRepository.find(blobName);
+                if (blob == null || blob.getDeletingSince() == null) {
+                    return;
+                }
+                expires = blob.getDeletingSince().plus(AttachmentBlobRepository.DELETE_CLAIM_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageException("Interrupted while waiting for a delete of " + blobName, e);
+        }
+    }
+
+    private void releaseQuietly(List<String> filenames) {
+        for (String filename : filenames) {
+            try {
+                releaseFile(filename);
+            } catch (IOException e) {
+                log.error("Failed to delete file: {}", filename, e);
             }
-        }catch (IOException e){
-            throw new RuntimeException("Failed to delete file: " + filename);
         }
     }
 
-}
\ No newline at end of file
+    private Path stagingFile() {
+        return attachmentStore.stagingDir().resolve(".upload-" + UUID.randomUUID());
+    }
+
+    private void deleteStaged(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            // Leftover staged files carry no reference and are purged by the orphan sweep
+            log.warn("Could not delete staged upload {}", staged, e);
+        }
+    }
+
+}
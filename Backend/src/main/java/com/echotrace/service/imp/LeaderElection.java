@@ -0,0 +1,85 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.repository.SchedulerLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Elects one node per job through a lease in Mongo, so scheduled jobs run once per cluster no matter how many
+ * backend nodes sit behind the load balancer. The leader renews its lease every time it asks; if it dies, another
+ * node takes over once the lease expires. The ttl must be longer than the interval between two isLeader calls.
+ */
+@Component
+public class LeaderElection {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final Duration leaseTtl;
+    private final String nodeId;
+
+    // Jobs this node currently leads, released on shutdown so a successor does not wait for the ttl
+    private final Set<String> heldLeases = ConcurrentHashMap.newKeySet();
+
+    public LeaderElection(SchedulerLeaseRepository leaseRepository,
+                          @Value("${echotrace.cluster.lease-ttl-ms:90000}") long leaseTtlMs) {
+        this.leaseRepository = leaseRepository;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Acquires or renews the job's lease. Returns false when another node holds it or Mongo is unreachable.
+     */
+    public boolean isLeader(String job) {
+        boolean leader;
+        try {
+            leader = leaseRepository.tryAcquire(job, nodeId, leaseTtl, Instant.now());
+        } catch (Exception e) {
+            log.warn("Could not renew the {} lease, standing down", job, e);
+            leader = false;
+        }
+
+        if (leader && heldLeases.add(job)) {
+            log.info("Node {} is now running {}", nodeId, job);
+        } else if (!leader && heldLeases.remove(job)) {
+            log.info("Node {} lost the {} lease", nodeId, job);
+        }
+        return leader;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        for (String job : heldLeases) {
+            try {
+                leaseRepository.release(job, nodeId);
+            } catch (Exception e) {
+                log.warn("Could not release the {} lease", job, e);
+            }
+        }
+        heldLeases.clear();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.dto.LogEntryResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Mapped detail responses by log id, for getLogById. Bounded by an estimate of the retained bytes rather than
+ * an entry count, since a log with a long solution and code snippet weighs a hundred times a one-liner.
+ * LogService invalidates an id on update and delete; the TTL bounds staleness when another node wrote it.
+ * The owner is kept next to the response, so the ownership check runs on hits too.
+ * Published as the "logResponses" cache metrics plus a "logResponses" hit ratio gauge.
+ */
+@Component
+public class LogResponseCache {
+
+    // Object headers, references and the fixed fields of a response, roughly
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<String, CachedLog> cache;
+
+    public LogResponseCache(MeterRegistry meterRegistry,
+                            @Value("${echotrace.logs.detail-cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${echotrace.logs.detail-cache.ttl-ms:300000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, CachedLog cached) -> weigh(id, cached))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "logResponses");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", "logResponses")
+                .description("Share of detail lookups answered from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached log or loads it. Concurrent loads of one id are collapsed, and an invalidation
+     * waits for an in-flight load of that id, so a response read before a write is never cached after it.
+     */
+    public CachedLog get(String id, Function<String, CachedLog> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    static int weigh(String id, CachedLog cached) {
+        long bytes = ENTRY_OVERHEAD + chars(id) + chars(cached.getOwner());
+        LogEntryResponse response = cached.getResponse();
+        if (response != null) {
+            bytes += chars(response.getId()) + chars(response.getTitle()) + chars(response.getProblem())
+                    + chars(response.getSolution()) + chars(response.getCodeSnippet()) + chars(response.getCreatedBy())
+                    + chars(response.getReferenceLinks()) + chars(response.getTags()) + chars(response.getAttachments());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    // Two bytes per char is the upper bound; compact Latin-1 strings take half of that
+    private static long chars(String value) {
+        return value == null ? 0 : 40L + 2L * value.length();
+    }
+
+    private static long chars(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long bytes = 16L + 8L * values.size();
+        for (String value : values) {
+            bytes += chars(value);
+        }
+        return bytes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedLog {
+        private final String owner;
+        // Last modification in epoch millis, the basis of the detail ETag
+        private final long version;
+        // Shared by every hit, callers must not modify it
+        private final LogEntryResponse response;
+    }
+}
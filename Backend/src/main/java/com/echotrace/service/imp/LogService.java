@@ -1,35 +1,63 @@
 package com.echotrace.service.imp;
 
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.CursorPage;
+import com.echotrace.dto.ImportResult;
 import com.echotrace.dto.LogEntryRequest;
 import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.dto.SearchMode;
 import com.echotrace.exception.LogNotFoundException;
+import com.echotrace.exception.LogVersionConflictException;
 import com.echotrace.exception.UnauthorizedException;
 import com.echotrace.model.LogEntry;
 import com.echotrace.model.User;
+import com.echotrace.repository.JournalVersionRepository;
 import com.echotrace.repository.LogMongoRepository;
 import com.echotrace.repository.LogRepository;
+import com.echotrace.repository.LogSearchIndex;
 import com.echotrace.repository.UserRepository;
 import com.echotrace.service.ILogService;
+import com.echotrace.util.KeywordMatcher;
 import com.echotrace.util.LogEntryMapper;
 import com.echotrace.util.PaginationUtil;
 import com.echotrace.util.SecurityUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 
@@ -39,13 +67,24 @@ public class LogService implements ILogService {
 
     private final LogRepository repository; // MongoRepository<LogEntry, String>
     private final LogMongoRepository logMongoRepository; // custom Mongo filter repo
+    private final LogSearchIndex searchIndex;
+    private final LogResponseCache responseCache;
+    private final JournalVersionRepository journalVersions;
     private final FileStorageService fileStorageService;
+    private final AttachmentReclaimer attachmentReclaimer;
     private final LogEntryMapper mapper;
     private final UserRepository userRepository;
     private final SecurityUtil securityUtil;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${echotrace.import.batch-size:500}")
+    private int importBatchSize = 500;
 
     private static final Logger log = LoggerFactory.getLogger(LogService.class);
 
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     @Override
     public LogEntryResponse createLog(LogEntryRequest request, List<MultipartFile> files) {
         LogEntry logEntry = mapper.toEntity(request);
@@ -57,27 +96,58 @@ public class LogService implements ILogService {
         logEntry.setCreatedBy(embeddedUser);
 
 
-        if (files != null && !files.isEmpty()) {
-            List<String> storedPaths = files.stream()
-                    .map(fileStorageService::saveFile)
-                    .toList();
+        List<String> storedPaths = fileStorageService.saveFiles(files);
+        if (!storedPaths.isEmpty()) {
             logEntry.setFilePaths(storedPaths);
         }
 
-        LogEntry savedLog = repository.save(logEntry); // Mongo save
+        LogEntry savedLog;
+        try {
+            savedLog = repository.save(logEntry); // Mongo save
+        } catch (RuntimeException e) {
+            releaseFiles(storedPaths);
+            throw e;
+        }
+        searchIndex.index(savedLog, journalVersions.bump(username));
         return mapper.toResponse(savedLog);
     }
 
     @Override
     public LogEntryResponse getLogById(String id) {
-        LogEntry logEntry = repository.findById(id)
-                .orElseThrow(() -> new LogNotFoundException("Log not found with id: " + id));
+        return getOwnedLog(id).getResponse();
+    }
 
+    @Override
+    public String getLogETag(String id) {
+        return "W/\"" + Long.toHexString(getOwnedLog(id).getVersion()) + "\"";
+    }
+
+    /**
+     * Weak ETag of everything the current user's list endpoints return. The version only moves forward and
+     * is bumped after each write has landed, so a list read after reading the version is never older than it.
+     * The user is part of the tag, as another account in the same browser sends the same URLs.
+     */
+    @Override
+    public String getJournalETag() {
         String username = SecurityUtil.getCurrentUsername();
-        if (!logEntry.getCreatedBy().getUsername().equals(username)) {
+        return "W/\"" + Integer.toHexString(username.hashCode()) + "-" + journalVersions.current(username) + "\"";
+    }
+
+    private LogResponseCache.CachedLog getOwnedLog(String id) {
+        LogResponseCache.CachedLog cached = responseCache.get(id, key -> {
+            LogEntry logEntry = repository.findById(key)
+                    .orElseThrow(() -> new LogNotFoundException("Log not found with id: " + key));
+            LocalDateTime modified = logEntry.getUpdatedAt() != null ? logEntry.getUpdatedAt() : logEntry.getCreatedAt();
+            long version = modified == null ? 0 : modified.toInstant(ZoneOffset.UTC).toEpochMilli();
+            return new LogResponseCache.CachedLog(
+                    logEntry.getCreatedBy().getUsername(), version, mapper.toResponse(logEntry));
+        });
+
+        String username = SecurityUtil.getCurrentUsername();
+        if (!cached.getOwner().equals(username)) {
             throw new UnauthorizedException("You cannot access this log.");
         }
-        return mapper.toResponse(logEntry);
+        return cached;
     }
 
     @Override
@@ -90,56 +160,139 @@ public class LogService implements ILogService {
     }
 
     @Override
-    public LogEntryResponse updateLog(String id, LogEntryRequest request, List<MultipartFile> files) {
-        LogEntry existingLog = repository.findById(id)
-                .orElseThrow(() -> new LogNotFoundException("Log not found with id: " + id));
+    public CursorPage<LogEntryResponse> getAllLogs(String after, int size) {
+        return filterSlice(null, null, null, null, null, null, SearchMode.REGEX, after, size, false,
+                mapper::toResponse);
+    }
+
+    @Override
+    public Page<LogEntrySummary> getLogSummaries(int page, int size, String sort) {
+        Pageable pageable = PaginationUtil.createPageRequest(page, size, sort);
+        String username = SecurityUtil.getCurrentUsername();
+
+        Page<LogEntry> logPage = logMongoRepository.filterLogs(
+                username, null, null, null, null, null, null, SearchMode.REGEX, CountMode.EXACT, true, pageable);
+        return logPage.map(mapper::toSummary);
+    }
+
+    @Override
+    public CursorPage<LogEntrySummary> getLogSummaries(String after, int size) {
+        return filterSlice(null, null, null, null, null, null, SearchMode.REGEX, after, size, true,
+                mapper::toSummary);
+    }
 
+    @Override
+    public LogEntryResponse updateLog(String id, LogEntryRequest request, List<MultipartFile> files) {
         String username = SecurityUtil.getCurrentUsername();
-        if (!existingLog.getCreatedBy().getUsername().equals(username)) {
-            throw new UnauthorizedException("You cannot update this log");
+
+        Update update = fieldUpdate(request);
+        List<String> filesToDelete = request.getFilesToDelete() != null ? request.getFilesToDelete() : List.of();
+        List<String> addedPaths = fileStorageService.saveFiles(files);
+        LocalDateTime now = LocalDateTime.now();
+        update.set("updatedAt", now);
+
+        LogEntry previous;
+        try {
+            previous = logMongoRepository.updateOwned(id, username, request.getVersion(), update, filesToDelete, addedPaths);
+        } catch (RuntimeException e) {
+            releaseFiles(addedPaths);
+            throw e;
+        }
+        if (previous == null) {
+            releaseFiles(addedPaths);
+            throw updateFailure(id, username);
+        }
+
+        // Only files that were attached before the update lose their reference
+        List<String> previousPaths = previous.getFilePaths() != null ? previous.getFilePaths() : List.of();
+        List<String> removedPaths = filesToDelete.stream()
+                .filter(previousPaths::contains)
+                .distinct()
+                .collect(Collectors.toList());
+        releaseFiles(removedPaths);
+
+        LogEntry updatedLog = applyUpdate(previous, request, removedPaths, addedPaths, now);
+        responseCache.invalidate(id);
+        searchIndex.index(updatedLog, journalVersions.bump(username));
+        return mapper.toResponse(updatedLog);
+    }
+
+    /**
+     * Tells apart why the guarded update matched nothing: the log is gone, belongs to someone else,
+     * or has moved past the version the client edited.
+     */
+    private RuntimeException updateFailure(String id, String username) {
+        Optional<LogEntry> current = repository.findById(id);
+        if (current.isEmpty()) {
+            return new LogNotFoundException("Log not found with id: " + id);
+        }
+        if (!current.get().getCreatedBy().getUsername().equals(username)) {
+            return new UnauthorizedException("You cannot update this log");
         }
+        return new LogVersionConflictException("Log " + id + " was changed since version "
+                + current.get().getVersion() + " was read, reload it and apply the changes again");
+    }
 
+    /**
+     * $set of the properties present in the request plus the version increment. Only the changed
+     * properties are written, so concurrent edits of other fields survive.
+     */
+    static Update fieldUpdate(LogEntryRequest request) {
+        Update update = new Update();
         if (request.getTitle() != null) {
-            existingLog.setTitle(request.getTitle());
+            update.set("title", request.getTitle());
         }
         if (request.getProblem() != null) {
-            existingLog.setProblem(request.getProblem());
+            update.set("problem", request.getProblem());
+        }
+        if (request.getSolution() != null) {
+            update.set("solution", request.getSolution());
         }
         if (request.getReferenceLinks() != null) {
-            existingLog.setReferenceLinks(request.getReferenceLinks());
+            update.set("referenceLinks", request.getReferenceLinks());
         }
         if (request.getTags() != null) {
-            existingLog.setTags(request.getTags());
+            update.set("tags", request.getTags());
         }
         if (request.getCodeSnippet() != null) {
-            existingLog.setCodeSnippet(request.getCodeSnippet());
+            update.set("codeSnippet", request.getCodeSnippet());
         }
+        update.inc("version", 1);
+        return update;
+    }
 
-        if(request.getFilesToDelete() != null && !request.getFilesToDelete().isEmpty()){
-            List<String> currentPaths = existingLog.getFilePaths();
-            if(currentPaths != null){
-                currentPaths.removeAll(request.getFilesToDelete());
-
-                for(String fileToDelete : request.getFilesToDelete()){
-                    fileStorageService.deleteFile(fileToDelete);
-                }
-            }
+    // The document as the update left it, built from the pre-image instead of reading it back
+    static LogEntry applyUpdate(LogEntry entry, LogEntryRequest request, List<String> removedPaths,
+                                List<String> addedPaths, LocalDateTime updatedAt) {
+        if (request.getTitle() != null) {
+            entry.setTitle(request.getTitle());
         }
-
-        if (files != null && !files.isEmpty()) {
-            List<String> existingPaths = existingLog.getFilePaths();
-            if (existingPaths == null) {
-                existingPaths = new ArrayList<>();
-            }
-            for (MultipartFile file : files) {
-                String savedPath = fileStorageService.saveFile(file);
-                existingPaths.add(savedPath);
-            }
-            existingLog.setFilePaths(existingPaths);
+        if (request.getProblem() != null) {
+            entry.setProblem(request.getProblem());
+        }
+        if (request.getSolution() != null) {
+            entry.setSolution(request.getSolution());
+        }
+        if (request.getReferenceLinks() != null) {
+            entry.setReferenceLinks(request.getReferenceLinks());
+        }
+        if (request.getTags() != null) {
+            entry.setTags(request.getTags());
+        }
+        if (request.getCodeSnippet() != null) {
+            entry.setCodeSnippet(request.getCodeSnippet());
         }
+        List<String> filePaths = entry.getFilePaths() != null ? new ArrayList<>(entry.getFilePaths()) : new ArrayList<>();
+        filePaths.removeAll(removedPaths);
+        filePaths.addAll(addedPaths);
+        entry.setFilePaths(filePaths);
+        entry.setUpdatedAt(updatedAt);
+        entry.setVersion(entry.getVersion() != null ? entry.getVersion() + 1 : 1L);
+        return entry;
+    }
 
-        LogEntry updatedLog = repository.save(existingLog);
-        return mapper.toResponse(updatedLog);
+    private void releaseFiles(List<String> filenames) {
+        attachmentReclaimer.scheduleDelete(filenames);
     }
 
     @Override
@@ -152,18 +305,181 @@ public class LogService implements ILogService {
             throw new UnauthorizedException("You cannot delete this log");
         }
 
-        if (logEntry.getFilePaths() != null) {
-            for (String filename : logEntry.getFilePaths()) {
+        // By id and owner rather than by entity, so an update landing in between does not fail the version check
+        LogEntry removed = logMongoRepository.removeOwned(id, username);
+        if (removed == null) {
+            throw new LogNotFoundException("Log not found with id: " + id);
+        }
+        // Only once the log is gone, so a failed delete does not leave it pointing at missing files; the
+        // removed copy holds the attachments the log had at that point, including any a racing update added
+        releaseFiles(removed.getFilePaths());
+        responseCache.invalidate(id);
+        searchIndex.remove(username, logEntry.getId(), journalVersions.bump(username));
+    }
+
+    @Override
+    public void exportLogs(OutputStream outputStream) throws IOException {
+        String username = SecurityUtil.getCurrentUsername();
+
+        // One log per line, written straight from the Mongo cursor so memory stays flat however big the journal is
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        // The mapper flushes after every value by default, which would defeat the batched flush below
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<LogEntry> logs = logMongoRepository.streamByUsername(username)) {
+            int written = 0;
+            for (LogEntry entry : (Iterable<LogEntry>) logs::iterator) {
+                writer.writeValue(generator, mapper.toResponse(entry));
+                generator.writeRaw('\n');
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.close();
+    }
+
+    @Override
+    public ImportResult importLogs(InputStream inputStream) throws IOException {
+        // Resolve the owner once for the whole import instead of once per entry
+        String username = SecurityUtil.getCurrentUsername();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User " + username + " not found"));
+        LogEntry.EmbeddedUser embeddedUser = new LogEntry.EmbeddedUser(user.getId(), user.getUsername());
+
+        ImportBatch batch = new ImportBatch(embeddedUser, new ImportResult());
+        PushbackInputStream in = new PushbackInputStream(inputStream, 1);
+
+        int first = in.read();
+        while (first != -1 && Character.isWhitespace(first)) {
+            first = in.read();
+        }
+        if (first == -1) {
+            return batch.result;
+        }
+        in.unread(first);
+
+        if (first == '[') {
+            importJsonArray(in, batch);
+        } else {
+            importNdjson(in, batch);
+        }
+        flushImportBatch(batch);
+        batch.result.getErrors().sort(Comparator.comparingInt(ImportResult.LineError::getLine));
+        return batch.result;
+    }
+
+    private void importJsonArray(InputStream in, ImportBatch batch) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            parser.nextToken(); // START_ARRAY
+            // Errors name the element's position in the array, a whole export is often a single line
+            int element = 0;
+            while (true) {
+                JsonNode node;
+                element++;
                 try {
-                    Path fullPath = fileStorageService.loadFile(filename);
-                    Files.deleteIfExists(fullPath);
-                } catch (IOException e) {
-                    log.error("Failed to delete file: {}", filename, e);
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        return;
+                    }
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    // A syntax error inside an array cannot be skipped, everything after it is lost
+                    batch.result.addError(element, "Malformed JSON: " + e.getOriginalMessage());
+                    return;
                 }
+                addImportEntry(node, element, batch);
             }
         }
+    }
 
-        repository.delete(logEntry);
+    private void importNdjson(InputStream in, ImportBatch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String text;
+        int line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                addImportEntry(objectMapper.readTree(text), line, batch);
+            } catch (JsonProcessingException e) {
+                batch.result.addError(line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void addImportEntry(JsonNode node, int line, ImportBatch batch) {
+        LogEntryRequest request;
+        try {
+            request = objectMapper.treeToValue(node, LogEntryRequest.class);
+        } catch (JsonProcessingException e) {
+            batch.result.addError(line, "Invalid log entry: " + e.getOriginalMessage());
+            return;
+        }
+
+        Set<ConstraintViolation<LogEntryRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            batch.result.addError(line, message);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LogEntry logEntry = mapper.toEntity(request);
+        logEntry.setId(UUID.randomUUID().toString());
+        logEntry.setCreatedBy(batch.owner);
+        logEntry.setCreatedAt(now);
+        logEntry.setUpdatedAt(now);
+        logEntry.setFilePaths(new ArrayList<>());
+        // Bulk inserts bypass save(), so the optimistic-locking version has to be seeded by hand
+        logEntry.setVersion(0L);
+
+        batch.entries.add(logEntry);
+        batch.lines.add(line);
+        if (batch.entries.size() >= importBatchSize) {
+            flushImportBatch(batch);
+        }
+    }
+
+    private void flushImportBatch(ImportBatch batch) {
+        if (batch.entries.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> failures = logMongoRepository.insertUnordered(batch.entries);
+        List<LogEntry> inserted = new ArrayList<>();
+        for (int i = 0; i < batch.entries.size(); i++) {
+            String failure = failures.get(i);
+            if (failure != null) {
+                batch.result.addError(batch.lines.get(i), failure);
+            } else {
+                batch.result.setImported(batch.result.getImported() + 1);
+                inserted.add(batch.entries.get(i));
+            }
+        }
+        if (!inserted.isEmpty()) {
+            // Per batch, so the lists and the cached counts move on even if a later line aborts the import
+            String username = batch.owner.getUsername();
+            searchIndex.index(username, inserted, journalVersions.bump(username));
+        }
+        batch.entries.clear();
+        batch.lines.clear();
+    }
+
+    // Entries waiting for the next insertMany, with the line each one came from
+    @RequiredArgsConstructor
+    private static class ImportBatch {
+        private final LogEntry.EmbeddedUser owner;
+        private final ImportResult result;
+        private final List<LogEntry> entries = new ArrayList<>();
+        private final List<Integer> lines = new ArrayList<>();
     }
 
     @Override
@@ -174,6 +490,8 @@ public class LogService implements ILogService {
             LocalDateTime afterDate,
             LocalDateTime betweenStart,
             LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            CountMode countMode,
             int page,
             int size,
             String sort) {
@@ -182,41 +500,179 @@ public class LogService implements ILogService {
         String username = SecurityUtil.getCurrentUsername();
 
         Page<LogEntry> logs = logMongoRepository.filterLogs(
-                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, pageable
+                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd,
+                searchMode, countMode, false, pageable
         );
 
-        return logs.map(entry -> {
-            List<String> matchedOn = new ArrayList<>();
+        KeywordMatcher matcher = KeywordMatcher.compile(keyword);
+        return logs.map(entry -> toFilterResponse(
+                entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+    }
 
-            if (tag != null && entry.getTags() != null &&
-                    entry.getTags().stream().anyMatch(t -> t.equalsIgnoreCase(tag))) {
-                matchedOn.add("tag: " + tag);
-            }
+    @Override
+    public Page<LogEntrySummary> filterLogSummaries(
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            CountMode countMode,
+            int page,
+            int size,
+            String sort) {
 
-            if (keyword != null) {
-                if ((entry.getTitle() != null && entry.getTitle().toLowerCase().contains(keyword.toLowerCase()))
-                        || (entry.getProblem() != null && entry.getProblem().toLowerCase().contains(keyword.toLowerCase()))
-                        || (entry.getSolution() != null && entry.getSolution().toLowerCase().contains(keyword.toLowerCase()))
-                        || (entry.getTags() != null && entry.getTags().stream().anyMatch(t -> t.toLowerCase().contains(keyword.toLowerCase())))) {
-                    matchedOn.add("keyword: " + keyword);
-                }
-            }
+        Pageable pageable = PaginationUtil.createPageRequest(page, size, sort);
+        String username = SecurityUtil.getCurrentUsername();
 
-            if (beforeDate != null || afterDate != null || (betweenStart != null && betweenEnd != null)) {
-                if (matchesDate(entry.getCreatedAt(), beforeDate, afterDate, betweenStart, betweenEnd)) {
-                    matchedOn.add("createdAt: " + entry.getCreatedAt());
-                }
-                if (entry.getUpdatedAt() != null && !entry.getUpdatedAt().equals(entry.getCreatedAt())
-                        && matchesDate(entry.getUpdatedAt(), beforeDate, afterDate, betweenStart, betweenEnd)) {
-                    matchedOn.add("updatedAt: " + entry.getUpdatedAt());
-                }
+        Page<LogEntry> logs = logMongoRepository.filterLogs(
+                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd,
+                searchMode, countMode, true, pageable
+        );
+
+        KeywordMatcher matcher = KeywordMatcher.compile(keyword);
+        return logs.map(entry -> toFilterSummary(
+                entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+    }
+
+    @Override
+    public CursorPage<LogEntryResponse> filterLogs(
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            String after,
+            int size) {
+
+        KeywordMatcher matcher = KeywordMatcher.compile(keyword);
+        return filterSlice(keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, after, size,
+                false, entry -> toFilterResponse(entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+    }
+
+    @Override
+    public CursorPage<LogEntrySummary> filterLogSummaries(
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            String after,
+            int size) {
+
+        KeywordMatcher matcher = KeywordMatcher.compile(keyword);
+        return filterSlice(keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, after, size,
+                true, entry -> toFilterSummary(entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+    }
+
+    private <T> CursorPage<T> filterSlice(String keyword, String tag,
+                                          LocalDateTime beforeDate, LocalDateTime afterDate,
+                                          LocalDateTime betweenStart, LocalDateTime betweenEnd,
+                                          SearchMode searchMode, String after, int size, boolean summary,
+                                          Function<LogEntry, T> toDto) {
+        PaginationUtil.Cursor cursor = PaginationUtil.decodeCursor(after);
+        String username = SecurityUtil.getCurrentUsername();
+        size = PaginationUtil.clampSize(size);
+
+        // Fetch one extra entry to know whether another slice follows
+        List<LogEntry> logs = logMongoRepository.filterLogsAfter(
+                username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode, cursor, size + 1,
+                summary
+        );
+        boolean hasNext = logs.size() > size;
+        if (hasNext) {
+            logs = logs.subList(0, size);
+        }
+
+        List<T> content = logs.stream().map(toDto).toList();
+        String nextCursor = hasNext ? PaginationUtil.encodeCursor(logs.get(logs.size() - 1)) : null;
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    private LogEntryResponse toFilterResponse(LogEntry entry, KeywordMatcher matcher, String tag,
+                                              LocalDateTime beforeDate, LocalDateTime afterDate,
+                                              LocalDateTime betweenStart, LocalDateTime betweenEnd) {
+        LogEntryResponse response = mapper.toResponse(entry);
+        Map<String, List<int[]>> highlights = new LinkedHashMap<>();
+        if (matcher != null) {
+            highlight(highlights, "title", entry.getTitle(), matcher);
+            highlight(highlights, "problem", entry.getProblem(), matcher);
+            highlight(highlights, "solution", entry.getSolution(), matcher);
+            highlightTags(highlights, entry.getTags(), matcher);
+        }
+        response.setHighlights(highlights);
+        response.setMatchedOn(matchedOn(entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+        response.setCreatedBy(entry.getCreatedBy().getUsername());
+        return response;
+    }
+
+    // Highlights cover what the summary shows, matchedOn is worked out exactly as for the full entry
+    private LogEntrySummary toFilterSummary(LogEntry entry, KeywordMatcher matcher, String tag,
+                                            LocalDateTime beforeDate, LocalDateTime afterDate,
+                                            LocalDateTime betweenStart, LocalDateTime betweenEnd) {
+        LogEntrySummary summary = mapper.toSummary(entry);
+        Map<String, List<int[]>> highlights = new LinkedHashMap<>();
+        if (matcher != null) {
+            highlight(highlights, "title", summary.getTitle(), matcher);
+            highlight(highlights, "preview", summary.getPreview(), matcher);
+            highlightTags(highlights, summary.getTags(), matcher);
+        }
+        summary.setHighlights(highlights);
+        summary.setMatchedOn(matchedOn(entry, matcher, tag, beforeDate, afterDate, betweenStart, betweenEnd));
+        return summary;
+    }
+
+    private void highlight(Map<String, List<int[]>> highlights, String field, String text, KeywordMatcher matcher) {
+        List<int[]> matches = matcher.find(text);
+        if (!matches.isEmpty()) {
+            highlights.put(field, matches);
+        }
+    }
+
+    // Keyed tags.<index>, so duplicate-looking tags stay apart
+    private void highlightTags(Map<String, List<int[]>> highlights, List<String> tags, KeywordMatcher matcher) {
+        if (tags == null) {
+            return;
+        }
+        for (int i = 0; i < tags.size(); i++) {
+            highlight(highlights, "tags." + i, tags.get(i), matcher);
+        }
+    }
+
+    /**
+     * Lists the filters the entry matched. The keyword is always among them when one was given: the query only
+     * returns entries that match it, by regex or through the text index, and highlights can miss a stemmed match.
+     */
+    private List<String> matchedOn(LogEntry entry, KeywordMatcher matcher, String tag,
+                                   LocalDateTime beforeDate, LocalDateTime afterDate,
+                                   LocalDateTime betweenStart, LocalDateTime betweenEnd) {
+        List<String> matchedOn = new ArrayList<>();
+
+        if (tag != null && entry.getTags() != null &&
+                entry.getTags().stream().anyMatch(t -> t.equalsIgnoreCase(tag))) {
+            matchedOn.add("tag: " + tag);
+        }
+
+        if (matcher != null) {
+            matchedOn.add("keyword: " + matcher.getKeyword());
+        }
+
+        if (beforeDate != null || afterDate != null || (betweenStart != null && betweenEnd != null)) {
+            if (matchesDate(entry.getCreatedAt(), beforeDate, afterDate, betweenStart, betweenEnd)) {
+                matchedOn.add("createdAt: " + entry.getCreatedAt());
+            }
+            if (entry.getUpdatedAt() != null && !entry.getUpdatedAt().equals(entry.getCreatedAt())
+                    && matchesDate(entry.getUpdatedAt(), beforeDate, afterDate, betweenStart, betweenEnd)) {
+                matchedOn.add("updatedAt: " + entry.getUpdatedAt());
             }
+        }
 
-            LogEntryResponse response = mapper.toResponse(entry);
-            response.setMatchedOn(matchedOn);
-            response.setCreatedBy(entry.getCreatedBy().getUsername());
-            return response;
-        });
+        return matchedOn;
     }
 
     private boolean matchesDate(LocalDateTime date, LocalDateTime before, LocalDateTime after,
@@ -0,0 +1,219 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.dto.LogEntryRequest;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.exception.LogNotFoundException;
+import com.echotrace.exception.LogVersionConflictException;
+import com.echotrace.exception.UnauthorizedException;
+import com.echotrace.model.LogEntry;
+import com.echotrace.repository.ReactiveLogMongoRepository;
+import com.echotrace.repository.ReactiveLogRepository;
+import com.echotrace.repository.ReactiveUserRepository;
+import com.echotrace.service.IReactiveLogService;
+import com.echotrace.util.LogEntryMapper;
+import com.echotrace.util.PaginationUtil;
+import com.echotrace.util.SecurityUtil;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Log API on reactive Mongo, active with the "reactive" profile, with the same ownership, versioning and
+ * attachment rules as LogService. Uploaded parts are spooled to a temp file without blocking and handed to
+ * FileStorageService on the bounded elastic scheduler, like every other disk access here. The caches, the
+ * in-memory search index and the journal version that LogService maintains are not used, so this profile
+ * serves no ETags.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveLogService implements IReactiveLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveLogService.class);
+
+    private final ReactiveLogRepository repository;
+    private final ReactiveLogMongoRepository logMongoRepository;
+    private final ReactiveUserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final AttachmentReclaimer attachmentReclaimer;
+    private final LogEntryMapper mapper;
+
+    @Override
+    public Mono<LogEntryResponse> createLog(LogEntryRequest request, Flux<FilePart> files) {
+        return currentUsername()
+                .flatMap(username -> userRepository.findByUsername(username)
+                        .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User " + username + " not found"))))
+                .flatMap(user -> storeFiles(files).flatMap(storedPaths -> {
+                    LogEntry logEntry = mapper.toEntity(request);
+                    logEntry.setCreatedBy(new LogEntry.EmbeddedUser(user.getId(), user.getUsername()));
+                    if (!storedPaths.isEmpty()) {
+                        logEntry.setFilePaths(storedPaths);
+                    }
+                    // Auditing is wired to the blocking template only
+                    LocalDateTime now = LocalDateTime.now();
+                    logEntry.setCreatedAt(now);
+                    logEntry.setUpdatedAt(now);
+                    return repository.save(logEntry)
+                            .onErrorResume(e -> releaseFiles(storedPaths).then(Mono.error(e)));
+                }))
+                .map(mapper::toResponse);
+    }
+
+    @Override
+    public Mono<LogEntryResponse> getLogById(String id) {
+        return getOwnedLog(id, "You cannot access this log.").map(mapper::toResponse);
+    }
+
+    @Override
+    public Flux<LogEntryResponse> getAllLogs(int page, int size, String sort) {
+        return currentUsername()
+                .flatMapMany(username -> repository.findByCreatedByUsername(
+                        username, PaginationUtil.createPageRequest(page, size, sort)))
+                .map(mapper::toResponse);
+    }
+
+    @Override
+    public Flux<LogEntryResponse> filterLogs(
+            String keyword,
+            String tag,
+            LocalDateTime beforeDate,
+            LocalDateTime afterDate,
+            LocalDateTime betweenStart,
+            LocalDateTime betweenEnd,
+            SearchMode searchMode,
+            int page,
+            int size,
+            String sort) {
+        return currentUsername()
+                .flatMapMany(username -> logMongoRepository.filterLogs(
+                        username, keyword, tag, beforeDate, afterDate, betweenStart, betweenEnd, searchMode,
+                        PaginationUtil.createPageRequest(page, size, sort)))
+                .map(mapper::toResponse);
+    }
+
+    @Override
+    public Flux<LogEntryResponse> exportLogs() {
+        return currentUsername()
+                .flatMapMany(logMongoRepository::streamByUsername)
+                .map(mapper::toResponse);
+    }
+
+    @Override
+    public Mono<LogEntryResponse> updateLog(String id, LogEntryRequest request, Flux<FilePart> files) {
+        List<String> filesToDelete = request.getFilesToDelete() != null ? request.getFilesToDelete() : List.of();
+        LocalDateTime now = LocalDateTime.now();
+
+        return currentUsername().flatMap(username -> storeFiles(files).flatMap(addedPaths -> {
+            Update update = LogService.fieldUpdate(request);
+            update.set("updatedAt", now);
+
+            return logMongoRepository.updateOwned(id, username, request.getVersion(), update, filesToDelete, addedPaths)
+                    .switchIfEmpty(Mono.defer(() -> updateFailure(id, username)))
+                    .onErrorResume(e -> releaseFiles(addedPaths).then(Mono.error(e)))
+                    .flatMap(previous -> {
+                        List<String> previousPaths = previous.getFilePaths() != null ? previous.getFilePaths() : List.of();
+                        List<String> removedPaths = filesToDelete.stream()
+                                .filter(previousPaths::contains)
+                                .distinct()
+                                .collect(Collectors.toList());
+                        LogEntry updatedLog = LogService.applyUpdate(previous, request, removedPaths, addedPaths, now);
+                        return releaseFiles(removedPaths).thenReturn(updatedLog);
+                    });
+        })).map(mapper::toResponse);
+    }
+
+    @Override
+    public Mono<Void> deleteLog(String id) {
+        return getOwnedLog(id, "You cannot delete this log")
+                // By id and owner, so an update landing in between does not fail the version check
+                .flatMap(logEntry -> logMongoRepository.removeOwned(id, logEntry.getCreatedBy().getUsername())
+                        .switchIfEmpty(Mono.error(() -> new LogNotFoundException("Log not found with id: " + id))))
+                .flatMap(removed -> releaseFiles(removed.getFilePaths() != null ? removed.getFilePaths() : List.of()));
+    }
+
+    private Mono<LogEntry> getOwnedLog(String id, String deniedMessage) {
+        return currentUsername()
+                .flatMap(username -> repository.findById(id)
+                        .switchIfEmpty(Mono.error(() -> new LogNotFoundException("Log not found with id: " + id)))
+                        .flatMap(logEntry -> logEntry.getCreatedBy().getUsername().equals(username)
+                                ? Mono.just(logEntry)
+                                : Mono.error(new UnauthorizedException(deniedMessage))));
+    }
+
+    // Same distinction as LogService: the log is gone, belongs to someone else, or moved past the version
+    private Mono<LogEntry> updateFailure(String id, String username) {
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new LogNotFoundException("Log not found with id: " + id)))
+                .flatMap(current -> Mono.error(current.getCreatedBy().getUsername().equals(username)
+                        ? new LogVersionConflictException("Log " + id + " was changed since version "
+                                + current.getVersion() + " was read, reload it and apply the changes again")
+                        : new UnauthorizedException("You cannot update this log")));
+    }
+
+    private Mono<List<String>> storeFiles(Flux<FilePart> files) {
+        if (files == null) {
+            return Mono.just(List.of());
+        }
+        return Mono.defer(() -> {
+            List<String> storedPaths = new ArrayList<>();
+            // One part at a time: multipart parts arrive in order and must be consumed in order
+            return files.concatMap(this::storeFile)
+                    .doOnNext(storedPaths::add)
+                    .then(Mono.fromSupplier(() -> List.copyOf(storedPaths)))
+                    // Parts stored before the failing one would otherwise stay on disk unreferenced
+                    .onErrorResume(e -> releaseFiles(storedPaths).then(Mono.error(e)));
+        });
+    }
+
+    private Mono<String> storeFile(FilePart part) {
+        return Mono.fromCallable(() -> Files.createTempFile("echotrace-upload-", ".part"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(tempFile -> part.transferTo(tempFile)
+                        .then(Mono.fromCallable(() -> {
+                            try (InputStream content = Files.newInputStream(tempFile)) {
+                                return fileStorageService.saveFile(part.filename(), content);
+                            }
+                        }).subscribeOn(Schedulers.boundedElastic()))
+                        .doFinally(signal -> deleteQuietly(tempFile)));
+    }
+
+    private void deleteQuietly(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Could not delete upload spool file {}", tempFile, e);
+        }
+    }
+
+    // Queueing the delete is a blocking Mongo insert, keep it off the event loop
+    private Mono<Void> releaseFiles(List<String> filenames) {
+        if (filenames.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> attachmentReclaimer.scheduleDelete(filenames))
+                .subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    private Mono<String> currentUsername() {
+        return SecurityUtil.getReactiveUsername()
+                .switchIfEmpty(Mono.error(() -> new UnauthorizedException("Not authenticated")));
+    }
+}
@@ -0,0 +1,363 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.exception.InvalidReminderScheduleException;
+import com.echotrace.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Fires each user's reminder at their own local time instead of one server-wide cron.
+ *
+ * <p>Every user carries the next due instant ({@code nextReminderAt}) in Mongo. Once a minute the scheduler
+ * loads only the users due within the next lookahead window (an index range query), buckets them into
+ * minute shards ordered by due time, and dispatches every shard whose minute has come. After dispatching,
+ * the user's next occurrence is written back, so the schedule survives restarts: reminders missed while
+ * the application was down are sent on startup if they are no older than the catch-up window and
+ * skipped otherwise.
+ *
+ * <p>With several backend nodes only the holder of the "reminders" lease runs the schedule; the others keep no
+ * queue. Due users are re-read before sending, so a shard never acts on preferences changed on another node.
+ */
+@Component
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    static final String DEFAULT_TIME = "20:00";
+    static final String DEFAULT_ZONE = "UTC";
+
+    static final String JOB_NAME = "reminders";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReminderService reminderService;
+    private final LeaderElection leaderElection;
+    private final Duration lookahead;
+    private final Duration catchUp;
+    private final Clock clock;
+
+    // Minute shards: epoch minute -> users due in that minute, earliest shard first
+    private final TreeMap<Long, Map<String, ScheduledReminder>> shards = new TreeMap<>();
+
+    // username -> epoch minute of the shard holding the user, to move them when preferences change
+    private final Map<String, Long> shardByUser = new HashMap<>();
+
+    // Everything due before this instant has been loaded from Mongo, null before the first load
+    private Instant loadedUntil;
+
+    // Guards the shards. A lock rather than synchronized because the first tick loads from Mongo while holding
+    // it, and a virtual thread blocked inside synchronized stays pinned to its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public ReminderScheduler(MongoTemplate mongoTemplate,
+                             ReminderService reminderService,
+                             LeaderElection leaderElection,
+                             @Value("${echotrace.reminders.lookahead-ms:300000}") long lookaheadMs,
+                             @Value("${echotrace.reminders.catch-up-ms:3600000}") long catchUpMs) {
+        this(mongoTemplate, reminderService, leaderElection, lookaheadMs, catchUpMs, Clock.systemUTC());
+    }
+
+    ReminderScheduler(MongoTemplate mongoTemplate, ReminderService reminderService, LeaderElection leaderElection,
+                      long lookaheadMs, long catchUpMs, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.reminderService = reminderService;
+        this.leaderElection = leaderElection;
+        this.lookahead = Duration.ofMillis(lookaheadMs);
+        this.catchUp = Duration.ofMillis(catchUpMs);
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules users that were created before per-user scheduling.
+     * Only touches opted-in users that have no due instant yet, so this is a no-op after the first run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Query query = new Query(Criteria.where("remindersEnabled").is(true).and("nextReminderAt").exists(false));
+        query.fields().include("username").include("reminderTime").include("timeZone");
+
+        Instant now = clock.instant();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        int pending = 0;
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                Instant next = nextOccurrence(user.getReminderTime(), user.getTimeZone(), now);
+                bulk.updateOne(Query.query(Criteria.where("id").is(user.getId())),
+                        Update.update("nextReminderAt", next));
+                if (++pending == 500) {
+                    bulk.execute();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+    }
+
+    @Scheduled(cron = "0 * * * * *")
+    public void tick() {
+        if (!leaderElection.isLeader(JOB_NAME)) {
+            // Another node runs the schedule; start from Mongo again if leadership comes back
+            lock.lock();
+            try {
+                shards.clear();
+                shardByUser.clear();
+                loadedUntil = null;
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        Instant now = clock.instant();
+        long currentMinute = Math.floorDiv(now.getEpochSecond(), 60);
+        List<ScheduledReminder> due = new ArrayList<>();
+        lock.lock();
+        try {
+            Instant horizon = now.plus(lookahead);
+            if (loadedUntil == null || horizon.isAfter(loadedUntil)) {
+                load(loadedUntil, Instant.ofEpochSecond(currentMinute * 60), horizon);
+                loadedUntil = horizon;
+            }
+
+            while (!shards.isEmpty() && shards.firstKey() <= currentMinute) {
+                Map<String, ScheduledReminder> shard = shards.pollFirstEntry().getValue();
+                shard.keySet().forEach(shardByUser::remove);
+                due.addAll(shard.values());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!due.isEmpty()) {
+            dispatch(due, now);
+        }
+    }
+
+    /**
+     * Recomputes the user's next due instant from their current preferences and moves them to the
+     * matching shard. Sets nextReminderAt on the given user; the caller saves it.
+     *
+     * @throws InvalidReminderScheduleException if the reminder time or time zone cannot be parsed
+     */
+    public void reschedule(User user) {
+        Instant next = user.isRemindersEnabled()
+                ? nextOccurrence(user.getReminderTime(), user.getTimeZone(), clock.instant())
+                : null;
+        user.setNextReminderAt(next);
+
+        lock.lock();
+        try {
+            unschedule(user.getUsername());
+            if (next != null) {
+                enqueueIfLoaded(new ScheduledReminder(
+                        user.getUsername(), user.getReminderTime(), user.getTimeZone(), next));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the first instant strictly after the given one at which it is the given local time in the
+     * given zone. In a DST gap the time is shifted forward by the length of the gap.
+     *
+     * @throws InvalidReminderScheduleException if the time is not HH:mm or the zone is unknown
+     */
+    public static Instant nextOccurrence(String time, String zone, Instant after) {
+        LocalTime localTime = parseTime(time);
+        ZoneId zoneId = parseZone(zone);
+        LocalDate date = after.atZone(zoneId).toLocalDate();
+        ZonedDateTime candidate = ZonedDateTime.of(date, localTime, zoneId);
+        if (!candidate.toInstant().isAfter(after)) {
+            candidate = ZonedDateTime.of(date.plusDays(1), localTime, zoneId);
+        }
+        return candidate.toInstant();
+    }
+
+    static LocalTime parseTime(String time) {
+        try {
+            return LocalTime.parse(time == null ? DEFAULT_TIME : time);
+        } catch (DateTimeException e) {
+            throw new InvalidReminderScheduleException("Invalid reminder time: " + time + ", expected HH:mm");
+        }
+    }
+
+    static ZoneId parseZone(String zone) {
+        try {
+            return ZoneId.of(zone == null ? DEFAULT_ZONE : zone);
+        } catch (DateTimeException e) {
+            throw new InvalidReminderScheduleException("Invalid time zone: " + zone);
+        }
+    }
+
+    /**
+     * Loads users due in [from, until). The first load has no lower bound, so reminders that fell due while the
+     * application was down are picked up. Later loads also sweep users already overdue before the current minute:
+     * normally none, but a schedule moved into the loaded window by another node lands there a minute later.
+     */
+    private void load(Instant from, Instant currentMinuteStart, Instant until) {
+        Criteria criteria = Criteria.where("remindersEnabled").is(true);
+        criteria = from == null
+                ? criteria.and("nextReminderAt").lt(until)
+                : criteria.orOperator(
+                        Criteria.where("nextReminderAt").lt(currentMinuteStart),
+                        Criteria.where("nextReminderAt").gte(from).lt(until));
+
+        Query query = new Query(criteria);
+        query.fields().include("username").include("reminderTime").include("timeZone").include("nextReminderAt");
+
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            users.forEach(user -> enqueue(new ScheduledReminder(
+                    user.getUsername(), user.getReminderTime(), user.getTimeZone(), user.getNextReminderAt())));
+        }
+    }
+
+    private void dispatch(List<ScheduledReminder> due, Instant now) {
+        Map<String, ScheduledReminder> queued = new LinkedHashMap<>();
+        due.forEach(reminder -> queued.put(reminder.getUsername(), reminder));
+
+        // Re-read the shard: keep only users whose schedule is still the one that was queued
+        Query query = new Query(Criteria.where("username").in(queued.keySet()).and("remindersEnabled").is(true));
+        query.fields().include("username").include("reminderTime").include("timeZone").include("nextReminderAt");
+        List<ScheduledReminder> current = new ArrayList<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            ScheduledReminder reminder = queued.get(user.getUsername());
+            if (reminder != null && reminder.getDueAt().equals(user.getNextReminderAt())) {
+                current.add(new ScheduledReminder(
+                        user.getUsername(), user.getReminderTime(), user.getTimeZone(), user.getNextReminderAt()));
+            }
+        }
+        if (current.isEmpty()) {
+            return;
+        }
+
+        List<String> daily = new ArrayList<>();
+        List<String> weekly = new ArrayList<>();
+        Map<String, Instant> nextByUser = new LinkedHashMap<>();
+        Map<String, Instant> dueByUser = new LinkedHashMap<>();
+        Instant staleBefore = now.minus(catchUp);
+
+        for (ScheduledReminder reminder : current) {
+            dueByUser.put(reminder.getUsername(), reminder.getDueAt());
+            Instant next;
+            try {
+                if (!reminder.getDueAt().isBefore(staleBefore)) {
+                    daily.add(reminder.getUsername());
+                    if (reminder.getDueAt().atZone(parseZone(reminder.getTimeZone())).getDayOfWeek() == DayOfWeek.MONDAY) {
+                        weekly.add(reminder.getUsername());
+                    }
+                }
+                next = nextOccurrence(reminder.getReminderTime(), reminder.getTimeZone(), now);
+            } catch (InvalidReminderScheduleException e) {
+                log.warn("Dropping reminder schedule of {}: {}", reminder.getUsername(), e.getMessage());
+                next = null;
+            }
+            nextByUser.put(reminder.getUsername(), next);
+        }
+
+        // Advance the schedule before sending: a crash in between skips one reminder rather than repeating it.
+        // Conditional on the due instant, so a concurrent profile change is not overwritten
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        nextByUser.forEach((username, next) -> bulk.updateOne(
+                Query.query(Criteria.where("username").is(username).and("nextReminderAt").is(dueByUser.get(username))),
+                next == null ? new Update().unset("nextReminderAt") : Update.update("nextReminderAt", next)));
+        bulk.execute();
+
+        lock.lock();
+        try {
+            for (ScheduledReminder reminder : current) {
+                Instant next = nextByUser.get(reminder.getUsername());
+                if (next != null) {
+                    enqueueIfLoaded(new ScheduledReminder(
+                            reminder.getUsername(), reminder.getReminderTime(), reminder.getTimeZone(), next));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        reminderService.sendDailyReminder(daily);
+        if (!weekly.isEmpty()) {
+            reminderService.sendWeeklyReminder(weekly);
+        }
+    }
+
+    // Entries due after loadedUntil are left to the loader, which reads them back from Mongo
+    private void enqueueIfLoaded(ScheduledReminder reminder) {
+        if (loadedUntil != null && reminder.getDueAt().isBefore(loadedUntil)) {
+            enqueue(reminder);
+        }
+    }
+
+    private void enqueue(ScheduledReminder reminder) {
+        unschedule(reminder.getUsername());
+        long minute = Math.floorDiv(reminder.getDueAt().getEpochSecond(), 60);
+        shards.computeIfAbsent(minute, key -> new LinkedHashMap<>()).put(reminder.getUsername(), reminder);
+        shardByUser.put(reminder.getUsername(), minute);
+    }
+
+    private void unschedule(String username) {
+        Long minute = shardByUser.remove(username);
+        if (minute == null) {
+            return;
+        }
+        Map<String, ScheduledReminder> shard = shards.get(minute);
+        if (shard != null) {
+            shard.remove(username);
+            if (shard.isEmpty()) {
+                shards.remove(minute);
+            }
+        }
+    }
+
+    int scheduledCount() {
+        lock.lock();
+        try {
+            return shardByUser.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class ScheduledReminder {
+        private final String username;
+        private final String reminderTime;
+        private final String timeZone;
+        private final Instant dueAt;
+    }
+}
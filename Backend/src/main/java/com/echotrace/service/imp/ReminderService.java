@@ -1,55 +1,96 @@
 package com.echotrace.service.imp;
 
 import com.echotrace.dto.ReminderMessage;
-import com.echotrace.repository.UserRepository;
-import com.echotrace.model.User;
-import lombok.AllArgsConstructor;
-import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delivers reminder messages to users' own /user/queue/reminders destinations.
+ * When each user is due is decided by ReminderScheduler.
+ */
 @Component
-@AllArgsConstructor
 public class ReminderService {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
 
+    static final String REMINDER_QUEUE = "/queue/reminders";
 
-    private void sendReminders(String type, String message) {
-        List<User> usersWithReminders = userRepository.findByRemindersEnabled(true);
+    static final String DAILY_MESSAGE = """
+            Daily check-in :
+            - Did you fix any issue or bug today?
+            - Did you learn something worth noting down?
+            """;
 
-        ReminderMessage reminder = new ReminderMessage(type, message);
+    static final String WEEKLY_MESSAGE = """
+            Weekly reflection :
+            - What was the toughest problem you solved this week? Remember the approach?
+            - What do you want to improve next week?
+            """;
 
-        for(User user : usersWithReminders) {
-            // In a production app, we would send to a unique user topic (e.g., /user/{userId}/topic/reminders)
-            // For now, we use the general topic but only trigger once to prevent broadcast spam.
-            messagingTemplate.convertAndSend("/topic/reminders", reminder);
-            return; // Exit after one send for demo purposes on a general topic
-        }
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final TaskExecutor reminderExecutor;
+    private final int batchSize;
+
+    public ReminderService(SimpMessagingTemplate messagingTemplate,
+                           SimpUserRegistry userRegistry,
+                           @Qualifier("reminderExecutor") TaskExecutor reminderExecutor,
+                           @Value("${echotrace.reminders.batch-size:200}") int batchSize) {
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.reminderExecutor = reminderExecutor;
+        this.batchSize = batchSize;
     }
-    @Scheduled(cron = "0 0 20 * * *")
-    public void dailyReminder(){
-        String message = """
-                Daily check-in :
-                - Did you fix any issue or bug today?
-                - Did you learn something worth noting down?
-                """;
-
-        ReminderMessage reminder = new ReminderMessage("daily",message);
-        messagingTemplate.convertAndSend("/topic/reminders",reminder);
+
+    public void sendDailyReminder(Collection<String> usernames) {
+        sendReminders(usernames, new ReminderMessage("daily", DAILY_MESSAGE));
+    }
+
+    public void sendWeeklyReminder(Collection<String> usernames) {
+        sendReminders(usernames, new ReminderMessage("weekly", WEEKLY_MESSAGE));
     }
 
-    @Scheduled(cron = "0 0 20 * * MON")
-    public void weeklyReminder(){
-        String message = """
-                Weekly reflection :
-                - What was the toughest problem you solved this week? Remember the approach?
-                - What do you want to improve next week?
-                """;
+    /**
+     * Sends the reminder to every given user that currently has a WebSocket session, in batches on the
+     * reminder executor, so nothing is pushed to users who are offline.
+     */
+    private void sendReminders(Collection<String> usernames, ReminderMessage reminder) {
+        List<String> batch = new ArrayList<>(batchSize);
+        for (String username : usernames) {
+            // Offline users have no session to deliver to; skip them before any message is built
+            if (userRegistry.getUser(username) == null) {
+                continue;
+            }
+            batch.add(username);
+            if (batch.size() >= batchSize) {
+                submit(List.copyOf(batch), reminder);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            submit(List.copyOf(batch), reminder);
+        }
+    }
 
-        ReminderMessage reminder = new ReminderMessage("weekly",message);
-        messagingTemplate.convertAndSend("/topic/reminders",reminder);
+    private void submit(List<String> usernames, ReminderMessage reminder) {
+        reminderExecutor.execute(() -> {
+            for (String username : usernames) {
+                try {
+                    messagingTemplate.convertAndSendToUser(username, REMINDER_QUEUE, reminder);
+                } catch (Exception e) {
+                    log.warn("Failed to send {} reminder to {}", reminder.getType(), username, e);
+                }
+            }
+        });
     }
 }
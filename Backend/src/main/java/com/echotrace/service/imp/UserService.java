@@ -5,6 +5,7 @@ import com.echotrace.dto.UserProfileDTO;
 import com.echotrace.exception.UnauthorizedException;
 import com.echotrace.model.User;
 import com.echotrace.repository.UserRepository;
+import com.echotrace.security.UserDetailsCache;
 import com.echotrace.service.IUserService;
 import lombok.AllArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +17,8 @@ public class UserService implements IUserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final ReminderScheduler reminderScheduler;
 
     @Override
     public UserProfileDTO getMyProfile(String username) {
@@ -28,6 +31,8 @@ public class UserService implements IUserService {
         dto.setEmail(user.getEmail());
         dto.setRole(user.getRole());
         dto.setRemindersEnabled(user.isRemindersEnabled());
+        dto.setReminderTime(user.getReminderTime() == null ? ReminderScheduler.DEFAULT_TIME : user.getReminderTime());
+        dto.setTimeZone(user.getTimeZone() == null ? ReminderScheduler.DEFAULT_ZONE : user.getTimeZone());
         return dto;
     }
 
@@ -50,7 +55,16 @@ public class UserService implements IUserService {
         // RemindersEnabled is a boolean, so we update it based on the DTO value.
         user.setRemindersEnabled(profileDTO.isRemindersEnabled());
 
+        if (profileDTO.getReminderTime() != null && !profileDTO.getReminderTime().isBlank()) {
+            user.setReminderTime(ReminderScheduler.parseTime(profileDTO.getReminderTime()).toString());
+        }
+        if (profileDTO.getTimeZone() != null && !profileDTO.getTimeZone().isBlank()) {
+            user.setTimeZone(ReminderScheduler.parseZone(profileDTO.getTimeZone()).getId());
+        }
+        reminderScheduler.reschedule(user);
+
         userRepository.save(user);
+        userDetailsCache.evict(username);
         return getMyProfile(username);
     }
 
@@ -65,5 +79,6 @@ public class UserService implements IUserService {
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        userDetailsCache.evict(username);
     }
 }
\ No newline at end of file
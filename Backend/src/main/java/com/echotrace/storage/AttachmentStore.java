@@ -0,0 +1,60 @@
+package com.echotrace.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where attachment bytes live. FileStorageService owns naming, reference counting and locking and hands
+ * finished uploads to a store, which only keeps bytes under a flat name.
+ *
+ * <p>Chosen with echotrace.storage.backend: local ({@link LocalAttachmentStore}, the default), s3
+ * ({@link S3AttachmentStore}) or tiered ({@link TieredAttachmentStore}, local in front of S3).
+ */
+public interface AttachmentStore {
+
+    /**
+     * Directory uploads are written to before {@link #put}. A local store keeps it on the file system of the
+     * stored files, so that put is a rename.
+     */
+    Path stagingDir();
+
+    /**
+     * Stores the staged file under the name, replacing any object of that name. The staged file is consumed:
+     * it is gone afterwards, whether or not the put succeeded.
+     */
+    void put(String name, Path staged) throws IOException;
+
+    /**
+     * @return size and last modification of the object, or empty when there is none
+     */
+    Optional<StoredObject> stat(String name) throws IOException;
+
+    /**
+     * Opens the bytes from start to end, both inclusive.
+     *
+     * @throws java.nio.file.NoSuchFileException when there is no such object
+     */
+    InputStream open(String name, long start, long end) throws IOException;
+
+    /**
+     * The object as a file on this node's disk, for zero-copy transfers. Empty when it is not stored locally.
+     */
+    default Optional<Path> localFile(String name) {
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes the object if there is one.
+     *
+     * @return whether an object was deleted, as far as the backend tells
+     */
+    boolean delete(String name) throws IOException;
+
+    /**
+     * Visits every stored object. Objects stored or deleted while the walk runs may or may not be visited.
+     */
+    void forEach(Consumer<StoredObject> visitor) throws IOException;
+}
@@ -0,0 +1,196 @@
+package com.echotrace.storage;
+
+import com.echotrace.exception.FileStorageException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stores attachments under a root directory, two levels deep by the first two bytes of the SHA-256 of the
+ * name (root/3f/a9/name), so no directory grows past a few hundred entries however many files there are.
+ *
+ * <p>Files from before sharding sit directly in the root. They are still found, served and deleted there;
+ * new files always go to their shard.
+ */
+public class LocalAttachmentStore implements AttachmentStore {
+
+    private static final int SHARD_DEPTH = 2;
+
+    private final Path root;
+
+    // Staged uploads and the multipart spool, on the same file system as the shards so that put is a rename
+    private final Path stagingDir;
+
+    public LocalAttachmentStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.stagingDir = this.root.resolve(".incoming");
+        try {
+            Files.createDirectories(stagingDir);
+        } catch (IOException e) {
+            throw new FileStorageException("Could not initialize uploads folder " + this.root, e);
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public Path stagingDir() {
+        return stagingDir;
+    }
+
+    @Override
+    public void put(String name, Path staged) throws IOException {
+        Path target = shardedPath(name);
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Staged on another file system
+                Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String name) throws IOException {
+        Optional<Path> file = localFile(name);
+        if (file.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.get(), BasicFileAttributes.class);
+            return Optional.of(new StoredObject(name, attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream open(String name, long start, long end) throws IOException {
+        Path file = localFile(name).orElseThrow(() -> new NoSuchFileException(name));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(start);
+        return new RangeInputStream(Channels.newInputStream(channel), end - start + 1);
+    }
+
+    @Override
+    public Optional<Path> localFile(String name) {
+        Path sharded = shardedPath(name);
+        if (Files.isRegularFile(sharded)) {
+            return Optional.of(sharded);
+        }
+        Path legacy = resolve(name);
+        return Files.isRegularFile(legacy) ? Optional.of(legacy) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        boolean deleted = Files.deleteIfExists(shardedPath(name));
+        return Files.deleteIfExists(resolve(name)) || deleted;
+    }
+
+    /**
+     * Walks the root and the shards below it. Directories starting with a dot, like the staging directory,
+     * are skipped; a file that disappears during the walk is passed over.
+     */
+    @Override
+    public void forEach(Consumer<StoredObject> visitor) throws IOException {
+        Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), SHARD_DEPTH + 1, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                return dir.equals(root) || !dir.getFileName().toString().startsWith(".")
+                        ? FileVisitResult.CONTINUE
+                        : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    visitor.accept(new StoredObject(file.getFileName().toString(), attributes.size(),
+                            attributes.lastModifiedTime().toInstant()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Whether a read now would move the file's recorded access, see {@link #markAccessed}.
+     */
+    boolean isAccessDue(Path file, Instant now, Duration granularity) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(now.minus(granularity));
+        } catch (IOException e) {
+            // Deleted or demoted meanwhile; the next read records it
+            return false;
+        }
+    }
+
+    /**
+     * Records a read by moving the modification time forward, at most once per granularity so that a popular
+     * file is not written to on every download. The tiered store evicts by this time.
+     */
+    void markAccessed(Path file, Instant now, Duration granularity) {
+        if (isAccessDue(file, now, granularity)) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.from(now));
+            } catch (IOException e) {
+                // Deleted or demoted meanwhile; the next read records it
+            }
+        }
+    }
+
+    Path shardedPath(String name) {
+        return resolve(shardOf(name) + "/" + name);
+    }
+
+    static String shardOf(String name) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            HexFormat hex = HexFormat.of();
+            return hex.toHexDigits(hash[0]) + "/" + hex.toHexDigits(hash[1]);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path resolve(String name) {
+        Path path = root.resolve(name).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid attachment name: " + name);
+        }
+        return path;
+    }
+}
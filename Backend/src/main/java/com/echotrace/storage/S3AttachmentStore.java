@@ -0,0 +1,313 @@
+package com.echotrace.storage;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Stores attachments as objects in an S3-compatible bucket (AWS S3, MinIO, Ceph RGW, ...), addressed
+ * path-style as endpoint/bucket/prefix+name so that any endpoint works without DNS per bucket. Requests are
+ * signed with Signature Version 4 by {@link S3RequestSigner}; only PUT, GET, HEAD, DELETE and ListObjectsV2
+ * are used.
+ *
+ * <p>Uploads are staged in a local directory and sent with their length and SHA-256, so a failed request
+ * can be told apart from a short upload and no object is ever left half written.
+ */
+public class S3AttachmentStore implements AttachmentStore {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final String host;
+    private final String bucket;
+    private final String prefix;
+    private final S3RequestSigner signer;
+    private final Path stagingDir;
+    private final Duration timeout;
+    private final Clock clock;
+
+    public S3AttachmentStore(URI endpoint, String region, String bucket, String prefix,
+                             String accessKey, String secretKey, Path stagingDir, Duration timeout) {
+        this(endpoint, region, bucket, prefix, accessKey, secretKey, stagingDir, timeout, Clock.systemUTC());
+    }
+
+    S3AttachmentStore(URI endpoint, String region, String bucket, String prefix, String accessKey,
+                      String secretKey, Path stagingDir, Duration timeout, Clock clock) {
+        if (bucket == null || bucket.isBlank()) {
+            throw new IllegalArgumentException("S3 storage needs a bucket (echotrace.storage.s3.bucket)");
+        }
+        if (accessKey == null || accessKey.isBlank() || secretKey == null || secretKey.isBlank()) {
+            throw new IllegalArgumentException(
+                    "S3 storage needs credentials (echotrace.storage.s3.access-key and secret-key)");
+        }
+        this.endpoint = endpoint;
+        this.host = hostHeader(endpoint);
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+        this.signer = new S3RequestSigner(region, accessKey, secretKey);
+        this.stagingDir = stagingDir.toAbsolutePath().normalize();
+        this.timeout = timeout;
+        this.clock = clock;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        try {
+            Files.createDirectories(this.stagingDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create staging folder " + this.stagingDir, e);
+        }
+    }
+
+    @Override
+    public Path stagingDir() {
+        return stagingDir;
+    }
+
+    @Override
+    public void put(String name, Path staged) throws IOException {
+        try {
+            // Signing the payload costs one more local read, but is accepted by every S3 implementation
+            String payloadHash = sha256Hex(staged);
+            HttpRequest request = request("PUT", prefix + name, Map.of(), Map.of(), payloadHash,
+                    HttpRequest.BodyPublishers.ofFile(staged));
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw failure(request, response.statusCode(), response.body());
+            }
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String name) throws IOException {
+        HttpRequest request = request("HEAD", prefix + name, Map.of(), Map.of(), S3RequestSigner.EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody());
+        HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw failure(request, response.statusCode(), "");
+        }
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        Instant lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        return Optional.of(new StoredObject(name, size, lastModified));
+    }
+
+    @Override
+    public InputStream open(String name, long start, long end) throws IOException {
+        HttpRequest request = request("GET", prefix + name, Map.of(), Map.of("range", "bytes=" + start + "-" + end),
+                S3RequestSigner.EMPTY_PAYLOAD, HttpRequest.BodyPublishers.noBody());
+        HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 206) {
+            return response.body();
+        }
+        if (status == 200) {
+            // Range ignored by the server
+            InputStream body = response.body();
+            body.skipNBytes(start);
+            return new RangeInputStream(body, end - start + 1);
+        }
+        String error = readError(response.body());
+        if (status == 404) {
+            throw new NoSuchFileException(name);
+        }
+        throw failure(request, status, error);
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        HttpRequest request = request("DELETE", prefix + name, Map.of(), Map.of(), S3RequestSigner.EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody());
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw failure(request, response.statusCode(), response.body());
+        }
+        // S3 answers 204 whether or not the object existed
+        return true;
+    }
+
+    /**
+     * Pages through ListObjectsV2 under the prefix, a thousand keys per request.
+     */
+    @Override
+    public void forEach(Consumer<StoredObject> visitor) throws IOException {
+        String continuationToken = null;
+        do {
+            Map<String, String> query = new LinkedHashMap<>();
+            query.put("list-type", "2");
+            if (!prefix.isEmpty()) {
+                query.put("prefix", prefix);
+            }
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            HttpRequest request = request("GET", null, query, Map.of(), S3RequestSigner.EMPTY_PAYLOAD,
+                    HttpRequest.BodyPublishers.noBody());
+            HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                throw failure(request, response.statusCode(), readError(response.body()));
+            }
+
+            Element result;
+            try (InputStream body = response.body()) {
+                result = parse(body).getDocumentElement();
+            }
+            NodeList contents = result.getElementsByTagName("Contents");
+            for (int i = 0; i < contents.getLength(); i++) {
+                Element object = (Element) contents.item(i);
+                String key = childText(object, "Key");
+                if (key == null || !key.startsWith(prefix)) {
+                    continue;
+                }
+                String lastModified = childText(object, "LastModified");
+                visitor.accept(new StoredObject(key.substring(prefix.length()),
+                        Long.parseLong(childText(object, "Size")),
+                        lastModified == null ? Instant.EPOCH : Instant.parse(lastModified)));
+            }
+            continuationToken = "true".equals(childText(result, "IsTruncated"))
+                    ? childText(result, "NextContinuationToken")
+                    : null;
+        } while (continuationToken != null);
+    }
+
+    /**
+     * Builds a signed path-style request; a null key addresses the bucket itself.
+     */
+    private HttpRequest request(String method, String key, Map<String, String> query, Map<String, String> headers,
+                                String payloadHash, HttpRequest.BodyPublisher body) {
+        String basePath = endpoint.getRawPath() == null ? "" : endpoint.getRawPath().replaceAll("/+$", "");
+        String canonicalUri = basePath + "/" + S3RequestSigner.uriEncode(bucket, true)
+                + (key == null ? "" : "/" + S3RequestSigner.uriEncode(key, false));
+        String queryString = S3RequestSigner.canonicalQuery(query);
+        URI uri = URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + canonicalUri
+                + (queryString.isEmpty() ? "" : "?" + queryString));
+
+        Instant now = clock.instant();
+        SortedMap<String, String> signedHeaders = new TreeMap<>(headers);
+        signedHeaders.put("host", host);
+        signedHeaders.put("x-amz-content-sha256", payloadHash);
+        signedHeaders.put("x-amz-date", S3RequestSigner.AMZ_DATE.format(now));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .method(method, body)
+                .header("Authorization",
+                        signer.authorization(method, canonicalUri, query, signedHeaders, payloadHash, now));
+        // The client sets Host itself, from the same URI
+        signedHeaders.forEach((name, value) -> {
+            if (!name.equals("host")) {
+                builder.header(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during S3 " + request.method() + " " + request.uri());
+        }
+    }
+
+    private static IOException failure(HttpRequest request, int status, String body) {
+        String detail = body == null || body.isBlank() ? "" : ": " + body.strip();
+        if (detail.length() > MAX_ERROR_LENGTH) {
+            detail = detail.substring(0, MAX_ERROR_LENGTH) + "...";
+        }
+        return new IOException("S3 " + request.method() + " " + request.uri().getRawPath()
+                + " failed with status " + status + detail);
+    }
+
+    private static String readError(InputStream body) throws IOException {
+        try (body) {
+            return new String(body.readNBytes(MAX_ERROR_LENGTH), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Document parse(InputStream xml) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setExpandEntityReferences(false);
+            return factory.newDocumentBuilder().parse(xml);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unreadable S3 listing", e);
+        }
+    }
+
+    private static String childText(Element parent, String name) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element && name.equals(element.getTagName())) {
+                return element.getTextContent();
+            }
+        }
+        return null;
+    }
+
+    private static String sha256Hex(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The Host header the HTTP client sends for the endpoint, which is part of the signature.
+     */
+    private static String hostHeader(URI endpoint) {
+        int port = endpoint.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equalsIgnoreCase(endpoint.getScheme()) && port == 80)
+                || ("https".equalsIgnoreCase(endpoint.getScheme()) && port == 443);
+        return defaultPort ? endpoint.getHost() : endpoint.getHost() + ":" + port;
+    }
+}
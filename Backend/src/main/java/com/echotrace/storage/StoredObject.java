@@ -0,0 +1,19 @@
+package com.echotrace.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * An object as listed by an {@link AttachmentStore}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class StoredObject {
+    private final String name;
+    private final long size;
+    private final Instant lastModified;
+}
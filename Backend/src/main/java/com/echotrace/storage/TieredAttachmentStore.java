@@ -0,0 +1,215 @@
+package com.echotrace.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A shared cold tier, usually S3, with this node's local disk in front of it as a read cache. Every upload is
+ * written through to the cold tier, so any node can serve it at once, and kept on the node that took it until
+ * AttachmentTiering evicts it after the cold-after age without a read. The cold tier is the record of what
+ * exists: stat asks it, and the orphan sweep and the delete queue reach every file through it.
+ *
+ * <p>A read from the hot tier moves the file's modification time forward at most once per access
+ * granularity, and checks at the same moment that the cold tier still has the file. A file deleted through
+ * another node is therefore served from this node's cache for at most that granularity.
+ *
+ * <p>Cold files are served from the cold tier as they are and not promoted back: an attachment nobody opened
+ * for weeks is rarely opened twice in a row.
+ *
+ * <p>Hot files stored before uploads were written through exist on this node only. AttachmentTiering copies
+ * them to the cold tier once per node, see {@link #copyHotOnlyFiles}; until then a hot copy is never dropped
+ * for missing from the cold tier.
+ */
+public class TieredAttachmentStore implements AttachmentStore {
+
+    private final LocalAttachmentStore hot;
+    private final AttachmentStore cold;
+    private final Duration accessGranularity;
+    private final Clock clock;
+
+    // Set once this node's hot-only files are in the cold tier, see copyHotOnlyFiles
+    private volatile boolean writeThroughComplete;
+
+    public TieredAttachmentStore(LocalAttachmentStore hot, AttachmentStore cold, Duration accessGranularity) {
+        this(hot, cold, accessGranularity, Clock.systemUTC());
+    }
+
+    TieredAttachmentStore(LocalAttachmentStore hot, AttachmentStore cold, Duration accessGranularity, Clock clock) {
+        this.hot = hot;
+        this.cold = cold;
+        this.accessGranularity = accessGranularity;
+        this.clock = clock;
+        this.writeThroughComplete = Files.exists(writeThroughMarker());
+    }
+
+    public LocalAttachmentStore getHotTier() {
+        return hot;
+    }
+
+    @Override
+    public Path stagingDir() {
+        return hot.stagingDir();
+    }
+
+    /**
+     * Writes the file to the cold tier, then keeps it in the hot tier. A failure on the cold tier fails the
+     * put, so an upload is never visible on one node only.
+     */
+    @Override
+    public void put(String name, Path staged) throws IOException {
+        try {
+            cold.put(name, stageCopy(staged));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        hot.put(name, staged);
+    }
+
+    /**
+     * Asks the cold tier only: a hot copy may belong to a file deleted through another node.
+     */
+    @Override
+    public Optional<StoredObject> stat(String name) throws IOException {
+        return cold.stat(name);
+    }
+
+    @Override
+    public InputStream open(String name, long start, long end) throws IOException {
+        if (localFile(name).isPresent()) {
+            try {
+                return hot.open(name, start, end);
+            } catch (NoSuchFileException e) {
+                // Evicted since it was looked up
+            }
+        }
+        return cold.open(name, start, end);
+    }
+
+    /**
+     * The hot copy of the file, if there is one. Counts as a read, since callers go on to serve it. When the
+     * read is recorded, the copy is first checked against the cold tier and dropped if the file was deleted.
+     */
+    @Override
+    public Optional<Path> localFile(String name) {
+        Optional<Path> file = hot.localFile(name);
+        if (file.isEmpty()) {
+            return file;
+        }
+        Instant now = clock.instant();
+        if (hot.isAccessDue(file.get(), now, accessGranularity)) {
+            try {
+                if (writeThroughComplete && cold.stat(name).isEmpty()) {
+                    hot.delete(name);
+                    return Optional.empty();
+                }
+            } catch (IOException e) {
+                // Cold tier unreachable: keep serving the copy, the next read checks again
+            }
+            hot.markAccessed(file.get(), now, accessGranularity);
+        }
+        return file;
+    }
+
+    /**
+     * Deletes from both tiers. Other nodes drop their hot copies on their next checked read, or evict them.
+     */
+    @Override
+    public boolean delete(String name) throws IOException {
+        boolean deletedHot = hot.delete(name);
+        boolean deletedCold = cold.delete(name);
+        return deletedHot || deletedCold;
+    }
+
+    /**
+     * Visits this node's hot tier, then the cold one. A file in both tiers is visited twice.
+     */
+    @Override
+    public void forEach(Consumer<StoredObject> visitor) throws IOException {
+        hot.forEach(visitor);
+        cold.forEach(visitor);
+    }
+
+    /**
+     * Drops the hot copy of a file listed from the hot tier, unless it was read since it was listed. A file
+     * the cold tier does not have yet, stored before uploads were written through, is copied there first, so
+     * it can always be read from one of the tiers.
+     *
+     * @return whether the hot copy was dropped
+     */
+    public boolean demote(StoredObject listed) throws IOException {
+        Optional<Path> file = hot.localFile(listed.getName());
+        if (file.isEmpty()
+                || Files.getLastModifiedTime(file.get()).toInstant().isAfter(listed.getLastModified())) {
+            return false;
+        }
+        if (cold.stat(listed.getName()).isEmpty()) {
+            cold.put(listed.getName(), stageCopy(file.get()));
+        }
+        hot.delete(listed.getName());
+        return true;
+    }
+
+    public boolean isWriteThroughComplete() {
+        return writeThroughComplete;
+    }
+
+    /**
+     * Copies every hot file the cold tier does not have to it, then records on this node's disk that this is
+     * done, so that from then on a hot copy missing from the cold tier means a deleted file. A file deleted
+     * through another node before the copy is copied back too and left to the orphan sweep.
+     *
+     * @return how many files were copied
+     */
+    public long copyHotOnlyFiles() throws IOException {
+        long[] copied = new long[1];
+        IOException[] failure = new IOException[1];
+        hot.forEach(object -> {
+            if (failure[0] != null || object.getName().startsWith(".")) {
+                return;
+            }
+            try {
+                Optional<Path> file = hot.localFile(object.getName());
+                if (file.isPresent() && cold.stat(object.getName()).isEmpty()) {
+                    cold.put(object.getName(), stageCopy(file.get()));
+                    copied[0]++;
+                }
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            // Not marked, so the next run starts over
+            throw failure[0];
+        }
+        Files.createDirectories(writeThroughMarker().getParent());
+        Files.writeString(writeThroughMarker(), clock.instant().toString());
+        writeThroughComplete = true;
+        return copied[0];
+    }
+
+    // In a dot directory, which the walks of the hot tier skip
+    private Path writeThroughMarker() {
+        return hot.getRoot().resolve(".tiering").resolve("write-through");
+    }
+
+    // A hard link stages the file without copying it; the cold tier consumes the link
+    private Path stageCopy(Path file) throws IOException {
+        Path staged = hot.stagingDir().resolve(".cold-" + UUID.randomUUID());
+        try {
+            Files.createLink(staged, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(file, staged);
+        }
+        return staged;
+    }
+}
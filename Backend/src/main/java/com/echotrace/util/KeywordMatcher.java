@@ -0,0 +1,168 @@
+package com.echotrace.util;
+
+import com.echotrace.repository.LogSearchIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive highlighter for one keyword, compiled once per request and then run over every field of every
+ * result. The keyword is split with LogSearchIndex.tokenize and each token is matched as a substring, the same
+ * rule the search index uses, so a multi-word keyword highlights its words wherever they occur. All tokens are
+ * case-folded into a single Aho-Corasick automaton up front, so each field is scanned once, character by
+ * character, whatever the number of tokens and without lower-casing a copy of it.
+ *
+ * Offsets are UTF-16 char indices, [start, end), which is what String.substring and JavaScript's slice expect.
+ */
+public final class KeywordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final String keyword;
+
+    // Per state: the outgoing characters, sorted, and the states they lead to
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    // Longest proper suffix of the state that is also a state
+    private final int[] failure;
+    // Length of the token ending at the state, 0 if none
+    private final int[] tokenLength;
+    // Nearest state down the failure chain that ends a token, NONE if there is none
+    private final int[] outputLink;
+
+    private KeywordMatcher(String keyword, Set<String> tokens) {
+        this.keyword = keyword;
+
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        lengths.add(0);
+        for (String token : tokens) {
+            int state = ROOT;
+            for (int i = 0; i < token.length(); i++) {
+                char c = fold(token.charAt(i));
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(c, next);
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                }
+                state = next;
+            }
+            lengths.set(state, token.length());
+        }
+
+        int states = children.size();
+        edgeChars = new char[states][];
+        edgeTargets = new int[states][];
+        tokenLength = new int[states];
+        for (int state = 0; state < states; state++) {
+            Map<Character, Integer> edges = children.get(state);
+            edgeChars[state] = new char[edges.size()];
+            edgeTargets[state] = new int[edges.size()];
+            int e = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[state][e] = edge.getKey();
+                edgeTargets[state][e++] = edge.getValue();
+            }
+            tokenLength[state] = lengths.get(state);
+        }
+
+        failure = new int[states];
+        outputLink = new int[states];
+        outputLink[ROOT] = NONE;
+        // Breadth first, so the failure state of every state is done before its children
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[ROOT]) {
+            failure[child] = ROOT;
+            outputLink[child] = NONE;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = 0; e < edgeChars[state].length; e++) {
+                int child = edgeTargets[state][e];
+                int fallback = step(failure[state], edgeChars[state][e]);
+                failure[child] = fallback;
+                outputLink[child] = tokenLength[fallback] > 0 ? fallback : outputLink[fallback];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the matcher, or null when there is no keyword to match
+     */
+    public static KeywordMatcher compile(String keyword) {
+        return keyword == null || keyword.isEmpty() ? null : new KeywordMatcher(keyword, LogSearchIndex.tokenize(keyword));
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the non-overlapping occurrences of the keyword's tokens, leftmost first, as {start, end} pairs.
+     * Where two tokens overlap the one starting first wins, the longer one on a tie.
+     */
+    public List<int[]> find(String text) {
+        List<int[]> matches = new ArrayList<>(0);
+        if (text == null) {
+            return matches;
+        }
+
+        // Longest token starting at each offset; only allocated once the field turns out to contain one
+        int[] longestAt = null;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            for (int match = tokenLength[state] > 0 ? state : outputLink[state]; match != NONE; match = outputLink[match]) {
+                if (longestAt == null) {
+                    longestAt = new int[text.length()];
+                }
+                int start = i + 1 - tokenLength[match];
+                longestAt[start] = Math.max(longestAt[start], tokenLength[match]);
+            }
+        }
+        if (longestAt == null) {
+            return matches;
+        }
+
+        int start = 0;
+        while (start < longestAt.length) {
+            if (longestAt[start] > 0) {
+                matches.add(new int[]{start, start + longestAt[start]});
+                start += longestAt[start];
+            } else {
+                start++;
+            }
+        }
+        return matches;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int e = Arrays.binarySearch(edgeChars[state], c);
+            if (e >= 0) {
+                return edgeTargets[state][e];
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    // Same folding as String.equalsIgnoreCase, so e.g. the Turkish dotless i and the Kelvin sign still match
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
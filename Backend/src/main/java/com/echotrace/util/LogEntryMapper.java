@@ -2,7 +2,9 @@ package com.echotrace.util;
 
 import com.echotrace.dto.LogEntryRequest;
 import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.LogEntrySummary;
 import com.echotrace.model.LogEntry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -12,6 +14,10 @@ import java.util.List;
 @Component
 public class LogEntryMapper {
 
+    // Where clients download attachments from: this backend's /uploads/, or a CDN in front of it. Ends with a slash.
+    @Value("${echotrace.storage.public-base-url:http://localhost:8082/uploads/}")
+    private String attachmentBaseUrl = "http://localhost:8082/uploads/";
+
     public LogEntry toEntity(LogEntryRequest request) {
         return LogEntry.builder()
                 .title(request.getTitle())
@@ -28,7 +34,7 @@ public class LogEntryMapper {
         List<String> previews = new ArrayList<>();
         if (entity.getFilePaths() != null && !entity.getFilePaths().isEmpty()) {
             for (String filename : entity.getFilePaths()) {
-                String previewPath = "http://localhost:8082/uploads/" + filename; // full URL
+                String previewPath = attachmentBaseUrl + filename; // full URL
                 previews.add(previewPath);
             }
         }
@@ -49,6 +55,35 @@ public class LogEntryMapper {
                 .createdAt(entity.getCreatedAt())
                 .updatedAt(updatedAt)
                 .createdBy(entity.getCreatedBy() != null ? entity.getCreatedBy().getUsername() : null)
+                .score(entity.getScore())
+                .version(entity.getVersion())
+                .build();
+    }
+
+    /**
+     * Maps an entry loaded with the summary projection, where problem holds at most PREVIEW_LENGTH + 1 code points.
+     */
+    public LogEntrySummary toSummary(LogEntry entity) {
+        String problem = entity.getProblem() == null ? "" : entity.getProblem();
+        boolean truncated = problem.codePointCount(0, problem.length()) > LogEntrySummary.PREVIEW_LENGTH;
+        String preview = truncated
+                ? problem.substring(0, problem.offsetByCodePoints(0, LogEntrySummary.PREVIEW_LENGTH))
+                : problem;
+
+        LocalDateTime updatedAt = null;
+        if (entity.getUpdatedAt() != null && !entity.getUpdatedAt().equals(entity.getCreatedAt())) {
+            updatedAt = entity.getUpdatedAt();
+        }
+        return LogEntrySummary.builder()
+                .id(entity.getId())
+                .title(entity.getTitle())
+                .tags(entity.getTags())
+                .preview(preview)
+                .previewTruncated(truncated)
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(updatedAt)
+                .createdBy(entity.getCreatedBy() != null ? entity.getCreatedBy().getUsername() : null)
+                .score(entity.getScore())
                 .build();
     }
 }
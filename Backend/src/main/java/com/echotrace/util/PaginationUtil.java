@@ -1,14 +1,27 @@
 package com.echotrace.util;
 
+import com.echotrace.exception.InvalidCursorException;
+import com.echotrace.model.LogEntry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 public class PaginationUtil {
 
+    private static final String CURSOR_SEPARATOR = "|";
+
+    // Upper bound for a page or cursor slice, so one request cannot pull a whole journal into memory
+    public static final int MAX_PAGE_SIZE = 100;
+
     /**
      * Creates a Pageable object from page, size, and sort parameters.
      *
@@ -30,6 +43,47 @@ public class PaginationUtil {
             }
         }
 
-        return PageRequest.of(page, size, Sort.by(orders));
+        return PageRequest.of(page, clampSize(size), Sort.by(orders));
+    }
+
+    /**
+     * Clamps a requested page or slice size to 1..MAX_PAGE_SIZE.
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Encodes the (createdAt, id) position of the last log on a page into an opaque cursor.
+     */
+    public static String encodeCursor(LogEntry last) {
+        String raw = last.getCreatedAt() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by encodeCursor. A null or blank cursor means "start from the newest log".
+     */
+    public static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(CURSOR_SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new InvalidCursorException("Malformed cursor: " + cursor);
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Cursor {
+        private final LocalDateTime createdAt;
+        private final String id;
     }
 }
@@ -1,9 +1,13 @@
 package com.echotrace.util;
 
 import com.echotrace.service.imp.CustomUserDetails;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 @Component
 public class SecurityUtil {
@@ -14,6 +18,17 @@ public class SecurityUtil {
         return auth.getName();
     }
 
+    /**
+     * The authenticated user of the current exchange on the reactive stack, where the security context
+     * travels with the subscriber instead of the thread. Completes empty when unauthenticated.
+     */
+    public static Mono<String> getReactiveUsername() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(Authentication::isAuthenticated)
+                .map(Authentication::getName);
+    }
+
     public static String getCurrentUserId() {
         var auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated()) return null;
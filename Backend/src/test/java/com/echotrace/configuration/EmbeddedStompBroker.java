@@ -0,0 +1,220 @@
+package com.echotrace.configuration;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for an external STOMP broker such as RabbitMQ, for relay tests.
+ * Speaks just enough STOMP 1.2 over TCP for Spring's broker relay: CONNECT, SUBSCRIBE, UNSUBSCRIBE, SEND
+ * (fanned out to every subscriber of the exact destination) and DISCONNECT. No heart-beats, no acks.
+ */
+class EmbeddedStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    EmbeddedStompBroker() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "embedded-stomp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                connections.add(connection);
+                Thread reader = new Thread(connection::readLoop, "embedded-stomp-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void publish(String destination, Map<String, String> headers, byte[] body) {
+        String messageId = String.valueOf(messageIds.incrementAndGet());
+        for (Connection connection : connections) {
+            for (Map.Entry<String, String> subscription : connection.subscriptions.entrySet()) {
+                if (!subscription.getValue().equals(destination)) {
+                    continue;
+                }
+                Map<String, String> out = new LinkedHashMap<>();
+                out.put("destination", destination);
+                out.put("subscription", subscription.getKey());
+                out.put("message-id", messageId);
+                headers.forEach((name, value) -> {
+                    if (!name.equals("destination") && !name.equals("receipt")) {
+                        out.putIfAbsent(name, value);
+                    }
+                });
+                out.put("content-length", String.valueOf(body.length));
+                connection.write("MESSAGE", out, body);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private class Connection {
+
+        private final Socket socket;
+        private final OutputStream out;
+        // subscription id -> destination
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        void readLoop() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                while (true) {
+                    Frame frame = readFrame(in);
+                    if (frame == null) {
+                        break;
+                    }
+                    handle(frame);
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } finally {
+                connections.remove(this);
+                close();
+            }
+        }
+
+        private void handle(Frame frame) {
+            switch (frame.command) {
+                case "CONNECT", "STOMP" -> write("CONNECTED",
+                        Map.of("version", "1.2", "heart-beat", "0,0", "server", "embedded"), new byte[0]);
+                case "SUBSCRIBE" -> subscriptions.put(frame.headers.get("id"), frame.headers.get("destination"));
+                case "UNSUBSCRIBE" -> subscriptions.remove(frame.headers.get("id"));
+                case "SEND" -> publish(frame.headers.get("destination"), frame.headers, frame.body);
+                case "DISCONNECT" -> {
+                    String receipt = frame.headers.get("receipt");
+                    if (receipt != null) {
+                        write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+                    }
+                    close();
+                }
+                default -> {
+                    // ACK, NACK and transactions are not needed by the relay tests
+                }
+            }
+            String receipt = frame.headers.get("receipt");
+            if (receipt != null && !frame.command.equals("DISCONNECT")) {
+                write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+            }
+        }
+
+        synchronized void write(String command, Map<String, String> headers, byte[] body) {
+            try {
+                StringBuilder head = new StringBuilder(command).append('\n');
+                headers.forEach((name, value) -> head.append(name).append(':').append(value).append('\n'));
+                head.append('\n');
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.write(0);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    private static Frame readFrame(InputStream in) throws IOException {
+        String command;
+        // Skip heart-beat EOLs between frames
+        do {
+            command = readLine(in);
+            if (command == null) {
+                return null;
+            }
+        } while (command.isEmpty());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                // STOMP 1.2: the first occurrence of a repeated header wins
+                headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+            }
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            body.write(in.readNBytes(Integer.parseInt(contentLength)));
+            in.read();
+        } else {
+            int b;
+            while ((b = in.read()) > 0) {
+                body.write(b);
+            }
+        }
+        return new Frame(command, headers, body.toByteArray());
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private static class Frame {
+        private final String command;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        Frame(String command, Map<String, String> headers, byte[] body) {
+            this.command = command;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
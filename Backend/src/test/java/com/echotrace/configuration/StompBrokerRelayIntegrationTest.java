@@ -0,0 +1,113 @@
+package com.echotrace.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two relay handlers, standing in for two backend nodes, share the embedded broker: a message published
+ * on one node reaches a client subscribed through the other.
+ */
+class StompBrokerRelayIntegrationTest {
+
+    private EmbeddedStompBroker broker;
+
+    private StompBrokerRelayMessageHandler nodeA;
+
+    private StompBrokerRelayMessageHandler nodeB;
+
+    private final BlockingQueue<Message<?>> nodeAClientMessages = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        broker = new EmbeddedStompBroker();
+        nodeA = startRelay(nodeAClientMessages);
+        nodeB = startRelay(new LinkedBlockingQueue<>());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        nodeA.stop();
+        nodeB.stop();
+        broker.close();
+    }
+
+    private StompBrokerRelayMessageHandler startRelay(BlockingQueue<Message<?>> clientMessages) throws InterruptedException {
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(clientMessages::add);
+
+        StompBrokerRelayMessageHandler relay = new StompBrokerRelayMessageHandler(
+                new ExecutorSubscribableChannel(), clientOutbound, new ExecutorSubscribableChannel(),
+                List.of("/topic", "/queue"));
+        relay.setRelayHost("127.0.0.1");
+        relay.setRelayPort(broker.getPort());
+        relay.setSystemHeartbeatSendInterval(0);
+        relay.setSystemHeartbeatReceiveInterval(0);
+        relay.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(relay.isBrokerAvailable(), "relay did not connect to the embedded broker");
+        return relay;
+    }
+
+    private Message<byte[]> frame(StompHeaderAccessor accessor, String payload) {
+        // The relay adds headers (e.g. the session id of its system session) on the way through
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+
+    private Message<?> awaitCommand(StompCommand command) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            Message<?> message = nodeAClientMessages.poll(100, TimeUnit.MILLISECONDS);
+            if (message != null && command.equals(StompHeaderAccessor.wrap(message).getCommand())) {
+                return message;
+            }
+        }
+        return fail("No " + command + " frame received");
+    }
+
+    @Test
+    void messagePublishedOnOneNode_ReachesSubscriberOfAnotherNode() throws Exception {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId("session-a");
+        connect.setAcceptVersion("1.2");
+        connect.setHeartbeat(0, 0);
+        nodeA.handleMessage(frame(connect, ""));
+        awaitCommand(StompCommand.CONNECTED);
+
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setSessionId("session-a");
+        subscribe.setSubscriptionId("sub-0");
+        subscribe.setDestination("/topic/reminders");
+        subscribe.setReceipt("subscribed");
+        nodeA.handleMessage(frame(subscribe, ""));
+        awaitCommand(StompCommand.RECEIPT);
+
+        // No session id: node B publishes through its shared system session, as SimpMessagingTemplate does
+        StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+        send.setDestination("/topic/reminders");
+        nodeB.handleMessage(frame(send, "{\"type\":\"daily\"}"));
+
+        Message<?> delivered = awaitCommand(StompCommand.MESSAGE);
+        assertEquals("session-a", StompHeaderAccessor.wrap(delivered).getSessionId());
+        assertEquals("{\"type\":\"daily\"}", new String((byte[]) delivered.getPayload(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,137 @@
+package com.echotrace.controller;
+
+import com.echotrace.storage.AttachmentStore;
+import com.echotrace.storage.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class AttachmentControllerTest {
+
+    private static final String FILENAME = "abc123.txt";
+
+    @Mock
+    private AttachmentStore attachmentStore;
+
+    @InjectMocks
+    private AttachmentController attachmentController;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        Path file = tempDir.resolve(FILENAME);
+        Files.writeString(file, "0123456789");
+        when(attachmentStore.localFile(FILENAME)).thenReturn(Optional.of(file));
+    }
+
+    @Test
+    void download_fullFile_setsCachingHeaders() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + FILENAME);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download(FILENAME, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("\"abc123\"", response.getHeader("ETag"));
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+    }
+
+    @Test
+    void download_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + FILENAME);
+        request.addHeader("If-None-Match", "\"abc123\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download(FILENAME, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void download_range_returnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + FILENAME);
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download(FILENAME, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void download_sendfileSupported_delegatesToConnector() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + FILENAME);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download(FILENAME, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(7L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void download_remoteObject_streamsRangeFromStore() throws Exception {
+        when(attachmentStore.localFile("cold.txt")).thenReturn(Optional.empty());
+        when(attachmentStore.stat("cold.txt")).thenReturn(Optional.of(new StoredObject("cold.txt", 10, Instant.EPOCH)));
+        when(attachmentStore.open("cold.txt", 7, 9)).thenReturn(new ByteArrayInputStream("789".getBytes()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/cold.txt");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=7-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download("cold.txt", request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("789", response.getContentAsString(StandardCharsets.UTF_8));
+        assertEquals("bytes 7-9/10", response.getHeader("Content-Range"));
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    void download_missingEverywhere_returnsNotFound() throws Exception {
+        when(attachmentStore.localFile("gone.txt")).thenReturn(Optional.empty());
+        when(attachmentStore.stat("gone.txt")).thenReturn(Optional.empty());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        attachmentController.download("gone.txt", new MockHttpServletRequest("GET", "/uploads/gone.txt"), response);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void parseRange_handlesEdgeCases() {
+        assertArrayEquals(new long[]{5, 9}, AttachmentController.parseRange("bytes=5-", 10));
+        assertArrayEquals(new long[]{0, 9}, AttachmentController.parseRange("bytes=0-99", 10));
+        assertEquals(0, AttachmentController.parseRange("bytes=10-", 10).length);
+        assertNull(AttachmentController.parseRange("bytes=0-1,3-4", 10));
+        assertNull(AttachmentController.parseRange("items=0-1", 10));
+    }
+}
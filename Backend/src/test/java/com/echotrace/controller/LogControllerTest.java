@@ -0,0 +1,85 @@
+package com.echotrace.controller;
+
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.service.ILogService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class LogControllerTest {
+
+    private static final String DETAIL_ETAG = "W/\"18f2a\"";
+    private static final String JOURNAL_ETAG = "W/\"3c1b-7\"";
+
+    @Mock
+    private ILogService logService;
+
+    @InjectMocks
+    private LogController logController;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        request = new MockHttpServletRequest("GET", "/api/logs");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void getLogById_ShouldReturn304WithoutLoading_WhenETagMatches() {
+        when(logService.getLogETag("log1")).thenReturn(DETAIL_ETAG);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, DETAIL_ETAG);
+
+        ResponseEntity<LogEntryResponse> result = logController.getLogById("log1", new ServletWebRequest(request, response));
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(DETAIL_ETAG);
+        verify(logService, never()).getLogById(any());
+    }
+
+    @Test
+    void getAllLogs_ShouldReturnBodyAndETag_WhenJournalChanged() {
+        when(logService.getJournalETag()).thenReturn(JOURNAL_ETAG);
+        Page<LogEntryResponse> page = new PageImpl<>(List.of(LogEntryResponse.builder().id("log1").build()));
+        when(logService.getAllLogs(0, 10, "createdAt,desc")).thenReturn(page);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"3c1b-6\"");
+
+        ResponseEntity<Page<LogEntryResponse>> result =
+                logController.getAllLogs(0, 10, "createdAt,desc", new ServletWebRequest(request, response));
+
+        assertThat(result.getBody()).isSameAs(page);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(JOURNAL_ETAG);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, no-cache");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.AUTHORIZATION);
+    }
+
+    @Test
+    void getAllLogs_ShouldReturn304_WhenJournalUnchanged() {
+        when(logService.getJournalETag()).thenReturn(JOURNAL_ETAG);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, JOURNAL_ETAG);
+
+        ResponseEntity<Page<LogEntryResponse>> result =
+                logController.getAllLogs(0, 10, "createdAt,desc", new ServletWebRequest(request, response));
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        verify(logService, never()).getAllLogs(anyInt(), anyInt(), any());
+    }
+}
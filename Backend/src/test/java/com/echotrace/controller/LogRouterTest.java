@@ -0,0 +1,156 @@
+package com.echotrace.controller;
+
+import com.echotrace.dto.LogEntryRequest;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.exception.LogNotFoundException;
+import com.echotrace.exception.LogVersionConflictException;
+import com.echotrace.service.IReactiveLogService;
+import com.echotrace.storage.AttachmentStore;
+import com.echotrace.storage.StoredObject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LogRouterTest {
+
+    private IReactiveLogService logService;
+    private AttachmentStore attachmentStore;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        logService = mock(IReactiveLogService.class);
+        attachmentStore = mock(AttachmentStore.class);
+
+        LogHandler handler = new LogHandler(logService, new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        LogRouter router = new LogRouter();
+        client = WebTestClient.bindToRouterFunction(router.logRoutes(handler)
+                        .and(router.uploadRoutes(attachmentStore)))
+                .build();
+    }
+
+    @Test
+    void getAllLogs_ShouldStreamNdjson_WhenAccepted() {
+        when(logService.getAllLogs(1, 5, "title,asc")).thenReturn(Flux.just(
+                LogEntryResponse.builder().id("log1").build(),
+                LogEntryResponse.builder().id("log2").build()));
+
+        String body = client.get().uri("/api/logs?page=1&size=5&sort=title,asc")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body).isNotNull();
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body).contains("\"id\":\"log1\"").contains("\"id\":\"log2\"");
+    }
+
+    @Test
+    void download_ShouldStreamAttachmentFromStore() throws Exception {
+        when(attachmentStore.stat("trace.txt")).thenReturn(Optional.of(new StoredObject("trace.txt", 5, Instant.EPOCH)));
+        when(attachmentStore.open("trace.txt", 0, 4)).thenReturn(new ByteArrayInputStream("trace".getBytes()));
+
+        client.get().uri("/uploads/trace.txt")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.TEXT_PLAIN)
+                .expectHeader().contentLength(5)
+                .expectBody(String.class).isEqualTo("trace");
+    }
+
+    @Test
+    void download_ShouldReturn404_WhenNotStored() throws Exception {
+        when(attachmentStore.stat("gone.txt")).thenReturn(Optional.empty());
+
+        client.get().uri("/uploads/gone.txt")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void filterLogs_ShouldRejectMalformedDate() {
+        client.get().uri("/api/logs/filter?beforeDate=yesterday")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Parameter 'beforeDate' must be an ISO date-time");
+
+        verify(logService, never()).filterLogs(any(), any(), any(), any(), any(), any(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void filterLogs_ShouldPassTextSearchMode() {
+        when(logService.filterLogs(eq("timeout"), isNull(), isNull(), isNull(), isNull(), isNull(),
+                eq(SearchMode.TEXT), eq(0), eq(10), eq("createdAt,desc"))).thenReturn(Flux.empty());
+
+        client.get().uri("/api/logs/filter?keyword=timeout&tag=&searchMode=text")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]");
+    }
+
+    @Test
+    void getLogById_ShouldReturn404_WhenMissing() {
+        when(logService.getLogById("nope")).thenReturn(Mono.error(new LogNotFoundException("Log not found with id: nope")));
+
+        client.get().uri("/api/logs/id/nope")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.path").isEqualTo("/api/logs/id/nope");
+    }
+
+    @Test
+    void createLog_ShouldReturn400_WhenLogIsInvalid() {
+        MultipartBodyBuilder parts = new MultipartBodyBuilder();
+        parts.part("log", new LogEntryRequest(), MediaType.APPLICATION_JSON);
+
+        client.post().uri("/api/logs")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(parts.build()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.title").exists();
+
+        verify(logService, never()).createLog(any(), any());
+    }
+
+    @Test
+    void updateLog_ShouldOnlyAddFiles_WhenLogPartIsMissing() {
+        ArgumentCaptor<LogEntryRequest> request = ArgumentCaptor.forClass(LogEntryRequest.class);
+        when(logService.updateLog(eq("log1"), request.capture(), any()))
+                .thenReturn(Mono.error(new LogVersionConflictException("Log log1 was changed")));
+        MultipartBodyBuilder parts = new MultipartBodyBuilder();
+        parts.part("files", "trace".getBytes()).filename("trace.txt");
+
+        client.patch().uri("/api/logs/log1")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(parts.build()))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(request.getValue().getTitle()).isNull();
+        assertThat(request.getValue().getTags()).isNull();
+        assertThat(request.getValue().getReferenceLinks()).isNull();
+    }
+}
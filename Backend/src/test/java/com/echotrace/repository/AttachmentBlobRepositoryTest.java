@@ -0,0 +1,91 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.AttachmentBlob;
+import com.mongodb.client.result.DeleteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentBlobRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AttachmentBlobRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new AttachmentBlobRepository(mongoTemplate);
+    }
+
+    @Test
+    void decrement_ShouldSkipReleasesAlreadyApplied_AndReportTheCurrentCount() {
+        AttachmentBlob blob = new AttachmentBlob();
+        blob.setRefCount(0);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(AttachmentBlob.class))).thenReturn(null);
+        when(mongoTemplate.findById("a.txt", AttachmentBlob.class)).thenReturn(blob);
+
+        assertThat(repository.decrement("a.txt", "release-1")).isZero();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(AttachmentBlob.class));
+        assertThat(query.getValue().getQueryObject().toJson()).contains("\"releases\": {\"$ne\": \"release-1\"}");
+        assertThat(update.getValue().modifies("refCount")).isTrue();
+        assertThat(update.getValue().modifies("releases")).isTrue();
+    }
+
+    @Test
+    void claimUnreferenced_ShouldReturnNull_WhenTheRecordIsReferencedOrClaimed() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(AttachmentBlob.class)))
+                .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThat(repository.claimUnreferenced("a.txt")).isNull();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(UpdateDefinition.class), options.capture(),
+                eq(AttachmentBlob.class));
+        // Holds a LocalDateTime, which the plain JSON codec cannot write
+        assertThat(query.getValue().getQueryObject().toString())
+                .contains("refCount=Document{{$not=Document{{$gt=0}}}}", "deletingSince=null");
+        assertThat(options.getValue().isUpsert()).isTrue();
+    }
+
+    @Test
+    void finishDelete_ShouldOnlyLiftTheClaim_WhenAnUploadBumpedTheGeneration() {
+        AttachmentBlob claim = new AttachmentBlob();
+        claim.setId("a.txt");
+        claim.setGeneration(7);
+        claim.setDeletingSince(LocalDateTime.now());
+        when(mongoTemplate.remove(any(Query.class), eq(AttachmentBlob.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        assertThat(repository.finishDelete(claim)).isFalse();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(AttachmentBlob.class));
+        assertThat(removed.getValue().getQueryObject().toJson()).contains("\"generation\": 7");
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(new Update().unset("deletingSince")),
+                eq(AttachmentBlob.class));
+    }
+}
@@ -0,0 +1,169 @@
+package com.echotrace.repository;
+
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.model.LogEntry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LogMongoRepositoryTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private LogSearchIndex searchIndex;
+    @Mock
+    private JournalVersionRepository journalVersions;
+
+    private LogCountCache countCache;
+    private LogMongoRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        countCache = new LogCountCache(100, 60_000);
+        repository = new LogMongoRepository(mongoTemplate, searchIndex, countCache, journalVersions);
+    }
+
+    @Test
+    void withFilePaths_ShouldRewriteFilePathsInOneStage_AndBumpVersionOnce() {
+        MongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        Update update = new Update().set("title", "$HOME is unset").inc("version", 1);
+
+        UpdateDefinition definition = LogMongoRepository.withFilePaths(
+                update, List.of("old.txt"), List.of("new.txt"), converter);
+
+        // The template adds its own version $inc to any update that does not already modify it
+        assertThat(definition.modifies("version")).isTrue();
+        List<Document> pipeline = ((AggregationUpdate) definition).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline).hasSize(1);
+        Document set = pipeline.get(0).get("$set", Document.class);
+        assertThat(set.keySet()).containsExactlyInAnyOrder("title", "version", "filePaths");
+        assertThat(set.get("title")).isEqualTo(new Document("$literal", "$HOME is unset"));
+        assertThat(set.toJson()).contains("\"$concatArrays\"", "\"$literal\": [\"old.txt\"]", "\"$literal\": [\"new.txt\"]");
+    }
+
+    @Test
+    void withFilePaths_ShouldKeepClassicUpdate_WhenFilesAreOnlyAddedOrRemoved() {
+        MongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+
+        UpdateDefinition added = LogMongoRepository.withFilePaths(
+                new Update().inc("version", 1), List.of(), List.of("new.txt"), converter);
+        UpdateDefinition removed = LogMongoRepository.withFilePaths(
+                new Update().inc("version", 1), List.of("old.txt"), List.of(), converter);
+
+        assertThat(added.getUpdateObject()).containsKeys("$inc", "$push");
+        assertThat(removed.getUpdateObject()).containsKeys("$inc", "$pullAll");
+    }
+
+    @Test
+    void filterLogs_ShouldCacheExactCount_UntilJournalVersionMoves() {
+        // A write on any node bumps the journal version, which the cached count is keyed by
+        when(journalVersions.current("testUser")).thenReturn(3L, 3L, 4L);
+        when(mongoTemplate.count(any(Query.class), eq(LogEntry.class))).thenReturn(42L);
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class))).thenReturn(List.of(new LogEntry()));
+
+        Page<LogEntry> first = filter(CountMode.EXACT, 0);
+        Page<LogEntry> second = filter(CountMode.ESTIMATED, 1);
+
+        assertThat(first.getTotalElements()).isEqualTo(42);
+        assertThat(second.getTotalElements()).isEqualTo(42);
+        verify(mongoTemplate, times(1)).count(any(Query.class), eq(LogEntry.class));
+
+        filter(CountMode.EXACT, 0);
+        verify(mongoTemplate, times(2)).count(any(Query.class), eq(LogEntry.class));
+    }
+
+    @Test
+    void filterLogs_ShouldSkipCount_WhenCountModeIsNone() {
+        List<LogEntry> oneMoreThanPage = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            oneMoreThanPage.add(new LogEntry());
+        }
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class))).thenReturn(oneMoreThanPage);
+
+        Page<LogEntry> page = filter(CountMode.NONE, 0);
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.hasNext()).isTrue();
+        verify(mongoTemplate, never()).count(any(Query.class), eq(LogEntry.class));
+    }
+
+    @Test
+    void filterLogs_ShouldProjectListFields_WhenSummaryRequested() {
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class))).thenReturn(List.of());
+
+        repository.filterLogs("testUser", null, null, null, null, null, null,
+                SearchMode.REGEX, CountMode.NONE, true, PageRequest.of(0, 10));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(LogEntry.class));
+        Document fields = query.getValue().getFieldsObject();
+        assertThat(fields).containsKeys("title", "tags", "createdAt", "updatedAt", "createdBy", "problem");
+        assertThat(fields).doesNotContainKeys("solution", "codeSnippet", "referenceLinks", "filePaths");
+        assertThat(fields.get("problem").toString()).contains("$substrCP");
+    }
+
+    @Test
+    void filterLogs_ShouldUseTextIndexAndRankByScore_WhenTextMode() {
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class))).thenReturn(List.of());
+
+        repository.filterLogs("testUser", "timeouts", null, null, null, null, null,
+                SearchMode.TEXT, CountMode.NONE, false, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(LogEntry.class));
+        Query query = captor.getValue();
+        assertThat(query.getQueryObject().get("$text", Document.class).getString("$search")).isEqualTo("timeouts");
+        assertThat(query.getQueryObject().toJson()).doesNotContain("$regularExpression");
+        assertThat(query.getSortObject().keySet()).containsExactly("score", "createdAt");
+        assertThat(query.getFieldsObject()).containsKey("score");
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void filterLogs_ShouldNarrowByIndex_AndStillApplyTheKeyword() {
+        when(searchIndex.search("testUser", "null pointer")).thenReturn(Set.of("log1"));
+        when(mongoTemplate.find(any(Query.class), eq(LogEntry.class))).thenReturn(List.of());
+
+        repository.filterLogs("testUser", "null pointer", null, null, null, null, null,
+                SearchMode.REGEX, CountMode.NONE, false, PageRequest.of(0, 10));
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(LogEntry.class));
+        String json = captor.getValue().getQueryObject().toJson();
+        assertThat(json).contains("\"$in\": [\"log1\"]", "\"pattern\": \"null pointer\"");
+    }
+
+    private Page<LogEntry> filter(CountMode countMode, int page) {
+        return repository.filterLogs("testUser", null, "java", null, null, null, null,
+                SearchMode.REGEX, countMode, false, PageRequest.of(page, 10));
+    }
+}
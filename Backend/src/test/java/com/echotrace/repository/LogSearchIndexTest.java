@@ -0,0 +1,121 @@
+package com.echotrace.repository;
+
+import com.echotrace.model.LogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LogSearchIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private JournalVersionRepository journalVersions;
+
+    private LogSearchIndex searchIndex;
+
+    private LogEntry first;
+    private LogEntry second;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new LogSearchIndex(mongoTemplate, journalVersions, 1000, 60_000);
+        first = entry("log1", "NullPointerException on login", "user was null", List.of("java", "spring-boot"));
+        second = entry("log2", "Mongo timeout", "Connection pool exhausted", List.of("mongodb"));
+    }
+
+    @Test
+    void search_ShouldLoadUserIndexOnce_AndMatchTokenSubstrings() {
+        when(mongoTemplate.stream(any(Query.class), eq(LogEntry.class)))
+                .thenReturn(Stream.of(first, second));
+
+        assertThat(searchIndex.search("testUser", "nullpoint")).containsExactly("log1");
+        assertThat(searchIndex.search("testUser", "Exception")).containsExactly("log1");
+        assertThat(searchIndex.search("testUser", "SPRING")).containsExactly("log1");
+        assertThat(searchIndex.search("testUser", "ongo pool")).containsExactly("log2");
+        assertThat(searchIndex.search("testUser", "login pool")).isEmpty();
+        assertThat(searchIndex.search("testUser", "ointerexc")).containsExactly("log1");
+        // Words too short for a trigram do not narrow, the caller's own match filters them
+        assertThat(searchIndex.search("testUser", "on pool")).containsExactly("log2");
+
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(LogEntry.class));
+    }
+
+    @Test
+    void search_ShouldReturnNull_WhenKeywordHasNoTokensOrIsARegex() {
+        assertThat(searchIndex.search("testUser", "  ++ ")).isNull();
+        assertThat(searchIndex.search("testUser", "db io")).isNull();
+        assertThat(searchIndex.search("testUser", "null|mongo")).isNull();
+        assertThat(searchIndex.search("testUser", "time.*out")).isNull();
+        verifyNoInteractions(mongoTemplate, journalVersions);
+    }
+
+    @Test
+    void indexAndRemove_ShouldKeepLoadedIndexInSync_WhenWritesFollowTheStamp() {
+        when(journalVersions.current("testUser")).thenReturn(3L, 4L, 4L, 4L, 4L, 5L, 5L, 6L);
+        when(mongoTemplate.stream(any(Query.class), eq(LogEntry.class)))
+                .thenReturn(Stream.of(first));
+        searchIndex.search("testUser", "null");
+
+        first.setTitle("Fixed login redirect");
+        first.setProblem("redirect loop");
+        searchIndex.index(first, 4);
+        assertThat(searchIndex.search("testUser", "null")).isEmpty();
+        assertThat(searchIndex.search("testUser", "redirect")).containsExactly("log1");
+        assertThat(searchIndex.search("testUser", "ointer")).isEmpty();
+        assertThat(searchIndex.search("testUser", "irec")).containsExactly("log1");
+
+        searchIndex.index("testUser", List.of(second), 5);
+        assertThat(searchIndex.search("testUser", "timeout")).containsExactly("log2");
+
+        searchIndex.remove("testUser", "log2", 6);
+        assertThat(searchIndex.search("testUser", "timeout")).isEmpty();
+
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(LogEntry.class));
+    }
+
+    @Test
+    void search_ShouldReload_WhenJournalMovedPastTheStamp() {
+        // Version 8 was written elsewhere, so the local write at 9 does not close the gap
+        when(journalVersions.current("testUser")).thenReturn(7L, 9L);
+        when(mongoTemplate.stream(any(Query.class), eq(LogEntry.class)))
+                .thenReturn(Stream.of(first), Stream.of(first, second));
+        assertThat(searchIndex.search("testUser", "timeout")).isEmpty();
+
+        searchIndex.index(first, 9);
+
+        assertThat(searchIndex.search("testUser", "timeout")).containsExactly("log2");
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(LogEntry.class));
+    }
+
+    @Test
+    void index_ShouldSkipUsersWithoutALoadedIndex() {
+        searchIndex.index(first, 1);
+        searchIndex.remove("testUser", "log1", 2);
+
+        verifyNoInteractions(mongoTemplate, journalVersions);
+    }
+
+    private LogEntry entry(String id, String title, String problem, List<String> tags) {
+        LogEntry entry = new LogEntry();
+        entry.setId(id);
+        entry.setTitle(title);
+        entry.setProblem(problem);
+        entry.setTags(tags);
+        entry.setCreatedBy(new LogEntry.EmbeddedUser("u1", "testUser"));
+        return entry;
+    }
+}
@@ -0,0 +1,201 @@
+package com.echotrace.repository;
+
+import com.echotrace.dto.IndexReport;
+import com.echotrace.model.LogEntry;
+import com.echotrace.model.PendingDelete;
+import com.echotrace.model.User;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MongoIndexManagerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private IndexOperations logIndexOps;
+    @Mock
+    private IndexOperations userIndexOps;
+    @Mock
+    private IndexOperations pendingDeleteIndexOps;
+    @Mock
+    private MongoCollection<Document> collection;
+    @Mock
+    private FindIterable<Document> find;
+    @Mock
+    private AggregateIterable<Document> aggregate;
+
+    private MongoIndexManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new MongoIndexManager(mongoTemplate, true);
+        when(mongoTemplate.getCollectionName(LogEntry.class)).thenReturn("log_entries");
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        when(mongoTemplate.getCollectionName(PendingDelete.class)).thenReturn("pending_deletes");
+        when(mongoTemplate.indexOps(LogEntry.class)).thenReturn(logIndexOps);
+        when(mongoTemplate.indexOps(User.class)).thenReturn(userIndexOps);
+        when(mongoTemplate.indexOps(PendingDelete.class)).thenReturn(pendingDeleteIndexOps);
+        when(mongoTemplate.getCollection(anyString())).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(find);
+        when(find.sort(any(Bson.class))).thenReturn(find);
+        when(collection.aggregate(anyList())).thenReturn(aggregate);
+        stubIndexStats();
+    }
+
+    @Test
+    void verify_ShouldReportMissingIndexesAndCollectionScans() {
+        when(logIndexOps.getIndexInfo()).thenReturn(List.of(index("_id_"), index(MongoIndexManager.OWNER_CREATED_AT)));
+        when(userIndexOps.getIndexInfo()).thenReturn(List.of(index("_id_")));
+        when(pendingDeleteIndexOps.getIndexInfo()).thenReturn(List.of(index(MongoIndexManager.PENDING_DELETE_DUE)));
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER)).thenReturn(plan(new Document("stage", "COLLSCAN")));
+
+        IndexReport report = manager.verify();
+
+        assertThat(report.getMissing()).containsExactly(
+                "log_entries." + MongoIndexManager.OWNER_TAGS,
+                "log_entries." + MongoIndexManager.OWNER_UPDATED_AT,
+                "log_entries." + MongoIndexManager.OWNER_TEXT,
+                "users." + MongoIndexManager.USERNAME_UNIQUE,
+                "users." + MongoIndexManager.NEXT_REMINDER_AT);
+        assertThat(report.getQueries()).isNotEmpty().allMatch(plan -> plan.isCollectionScan() && !plan.isOk());
+        assertThat(report.isHealthy()).isFalse();
+    }
+
+    @Test
+    void verify_ShouldAcceptPlansUsingTheExpectedIndex() {
+        when(logIndexOps.getIndexInfo()).thenReturn(List.of(
+                index(MongoIndexManager.OWNER_CREATED_AT), index(MongoIndexManager.OWNER_TAGS),
+                index(MongoIndexManager.OWNER_UPDATED_AT), index(MongoIndexManager.OWNER_TEXT)));
+        when(userIndexOps.getIndexInfo()).thenReturn(List.of(
+                index(MongoIndexManager.USERNAME_UNIQUE), index(MongoIndexManager.NEXT_REMINDER_AT)));
+        when(pendingDeleteIndexOps.getIndexInfo()).thenReturn(List.of(index(MongoIndexManager.PENDING_DELETE_DUE)));
+        when(collection.find(any(Bson.class))).thenAnswer(invocation -> {
+            Document filter = invocation.getArgument(0);
+            FindIterable<Document> probe = mock(FindIterable.class);
+            when(probe.sort(any(Bson.class))).thenReturn(probe);
+            when(probe.explain(ExplainVerbosity.QUERY_PLANNER)).thenReturn(plan(ixscan(expectedIndexFor(filter))));
+            return probe;
+        });
+
+        IndexReport report = manager.verify();
+
+        assertThat(report.getMissing()).isEmpty();
+        assertThat(report.getQueries()).allMatch(IndexReport.QueryPlan::isOk);
+        assertThat(report.isHealthy()).isTrue();
+    }
+
+    @Test
+    void verify_ShouldListIndexesWithoutUse() {
+        when(logIndexOps.getIndexInfo()).thenReturn(List.of());
+        when(userIndexOps.getIndexInfo()).thenReturn(List.of());
+        when(pendingDeleteIndexOps.getIndexInfo()).thenReturn(List.of());
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER)).thenReturn(plan(new Document("stage", "COLLSCAN")));
+
+        IndexReport report = manager.verify();
+
+        // All collections return the same stats from the shared mock; _id_ is never reported
+        assertThat(report.getUnused()).extracting(IndexReport.IndexUsage::getIndex)
+                .containsExactly(MongoIndexManager.OWNER_UPDATED_AT, MongoIndexManager.OWNER_UPDATED_AT,
+                        MongoIndexManager.OWNER_UPDATED_AT);
+    }
+
+    @Test
+    void ensureIndexes_ShouldCreateRemainingIndexes_WhenOneFails() {
+        doThrow(new IllegalStateException("E11000 duplicate key")).when(userIndexOps)
+                .ensureIndex(argThat(definition -> MongoIndexManager.USERNAME_UNIQUE
+                        .equals(definition.getIndexOptions().getString("name"))));
+
+        manager.ensureIndexes();
+
+        verify(logIndexOps, times(4)).ensureIndex(any(IndexDefinition.class));
+        verify(userIndexOps, times(2)).ensureIndex(any(IndexDefinition.class));
+        verify(pendingDeleteIndexOps).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void collectStages_ShouldFindIndexesInNestedOrPlans() {
+        // Slot-based engine layout: queryPlan -> FETCH -> OR -> two IXSCANs
+        Document winningPlan = new Document("queryPlan", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "OR").append("inputStages", List.of(
+                        ixscan(MongoIndexManager.OWNER_CREATED_AT), ixscan(MongoIndexManager.OWNER_UPDATED_AT)))));
+        Set<String> used = new LinkedHashSet<>();
+
+        boolean collectionScan = MongoIndexManager.collectStages(winningPlan, used);
+
+        assertThat(collectionScan).isFalse();
+        assertThat(used).containsExactly(MongoIndexManager.OWNER_CREATED_AT, MongoIndexManager.OWNER_UPDATED_AT);
+    }
+
+    private void stubIndexStats() {
+        when(aggregate.into(any())).thenAnswer(invocation -> {
+            Collection<Document> target = invocation.getArgument(0);
+            target.add(new Document("name", "_id_").append("accesses", new Document("ops", 0L).append("since", new Date())));
+            target.add(new Document("name", MongoIndexManager.OWNER_CREATED_AT)
+                    .append("accesses", new Document("ops", 12L).append("since", new Date())));
+            target.add(new Document("name", MongoIndexManager.OWNER_UPDATED_AT)
+                    .append("accesses", new Document("ops", 0L).append("since", new Date())));
+            return target;
+        });
+    }
+
+    private String expectedIndexFor(Document filter) {
+        String json = filter.toJson();
+        if (json.contains("$text")) {
+            return MongoIndexManager.OWNER_TEXT;
+        }
+        if (json.contains("notBefore")) {
+            return MongoIndexManager.PENDING_DELETE_DUE;
+        }
+        if (json.contains("nextReminderAt")) {
+            return MongoIndexManager.NEXT_REMINDER_AT;
+        }
+        if (json.contains("\"username\"")) {
+            return MongoIndexManager.USERNAME_UNIQUE;
+        }
+        if (json.contains("tags")) {
+            return MongoIndexManager.OWNER_TAGS;
+        }
+        return MongoIndexManager.OWNER_CREATED_AT;
+    }
+
+    private static Document plan(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+
+    private static Document ixscan(String indexName) {
+        return new Document("stage", "IXSCAN").append("indexName", indexName);
+    }
+
+    private static IndexInfo index(String name) {
+        return new IndexInfo(List.of(), name, false, false, null);
+    }
+}
@@ -0,0 +1,51 @@
+package com.echotrace.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 120_000, 100, 60_000);
+
+    @Test
+    void verify_ShouldReturnSubjectAndExpiry_FromSingleParse() {
+        String token = jwtUtil.generateToken("tester");
+
+        JwtUtil.VerifiedToken verified = jwtUtil.verify(token);
+
+        assertThat(verified.getSubject()).isEqualTo("tester");
+        assertThat(verified.getExpiresAt()).isInTheFuture();
+        assertThat(jwtUtil.verify(token)).isSameAs(verified);
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("tester");
+    }
+
+    @Test
+    void verify_ShouldReject_TamperedToken() {
+        String token = jwtUtil.generateToken("tester");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+    }
+
+    @Test
+    void verify_ShouldReject_TokenSignedWithAnotherKey() {
+        JwtUtil other = new JwtUtil("fedcba9876543210fedcba9876543210fedcba9876543210", 60_000, 120_000, 100, 60_000);
+
+        assertThat(jwtUtil.validateToken(other.generateToken("tester"))).isFalse();
+    }
+
+    @Test
+    void verify_ShouldReject_ExpiredToken() {
+        JwtUtil shortLived = new JwtUtil(SECRET, -1_000, -1_000, 100, 60_000);
+
+        assertThatThrownBy(() -> shortLived.verify(shortLived.generateToken("tester")))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+}
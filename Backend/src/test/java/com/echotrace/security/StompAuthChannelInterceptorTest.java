@@ -0,0 +1,54 @@
+package com.echotrace.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class StompAuthChannelInterceptorTest {
+
+    private final StompAuthChannelInterceptor interceptor =
+            new StompAuthChannelInterceptor(mock(JwtUtil.class), mock(UserDetailsCache.class));
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void preSend_ShouldAllowSubscribe_ToOwnUserQueue() {
+        Message<byte[]> subscribe = frame(StompCommand.SUBSCRIBE, "/user/queue/reminders");
+
+        assertThat(interceptor.preSend(subscribe, channel)).isSameAs(subscribe);
+    }
+
+    @Test
+    void preSend_ShouldRejectSubscribe_ToBrokerTopics() {
+        // Relay mode broadcasts every node's sessions and other users' reminders on these
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/simp-user-registry"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> interceptor.preSend(
+                frame(StompCommand.SUBSCRIBE, "/topic/unresolved-user-destination"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/reminders"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void preSend_ShouldRejectSend_OutsideApplicationDestinations() {
+        assertThatThrownBy(() -> interceptor.preSend(frame(StompCommand.SEND, "/topic/simp-user-registry"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("session-1");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,127 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.model.PendingDelete;
+import com.echotrace.repository.LogMongoRepository;
+import com.echotrace.repository.PendingDeleteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentReclaimerTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+
+    @Mock
+    private PendingDeleteRepository pendingDeletes;
+    @Mock
+    private LogMongoRepository logMongoRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private LeaderElection leaderElection;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AttachmentReclaimer reclaimer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reclaimer = new AttachmentReclaimer(pendingDeletes, logMongoRepository, fileStorageService, leaderElection,
+                meterRegistry, 2, 3, 30_000, 3_600_000, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void scheduleDelete_ShouldLeaveFilesToSweep_WhenQueueIsUnavailable() {
+        doThrow(new IllegalStateException("Mongo down")).when(pendingDeletes).enqueue(anyCollection(), any());
+
+        reclaimer.scheduleDelete(List.of("a.txt"));
+
+        verify(pendingDeletes).enqueue(List.of("a.txt"), NOW);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void processPendingDeletes_ShouldDrainFullBatches_AndRetryFailuresWithBackoff() throws IOException {
+        when(leaderElection.isLeader(AttachmentReclaimer.DELETES_JOB)).thenReturn(true);
+        PendingDelete failing = entry("b.txt", 1);
+        when(pendingDeletes.claimNext(NOW))
+                .thenReturn(entry("a.txt", 0), failing, entry("c.txt", 0), null);
+        // Lenient: the other files go through the same method, and strict stubs would fail them
+        lenient().doThrow(new IOException("busy")).when(fileStorageService).releaseFile("b.txt", "id-b.txt");
+        when(pendingDeletes.count()).thenReturn(1L);
+
+        reclaimer.processPendingDeletes();
+
+        verify(fileStorageService).releaseFile("a.txt", "id-a.txt");
+        verify(fileStorageService).releaseFile("c.txt", "id-c.txt");
+        // Second attempt: twice the base backoff
+        verify(pendingDeletes).retryLater(eq(failing), eq(NOW.plusSeconds(60)), contains("busy"));
+        assertThat(meterRegistry.get("attachments.deletes.completed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("attachments.deletes.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("attachments.deletes.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void processBatch_ShouldGiveUp_AfterLastAttempt() throws IOException {
+        when(pendingDeletes.claimNext(NOW)).thenReturn(entry("a.txt", 2), (PendingDelete) null);
+        doThrow(new IOException("busy")).when(fileStorageService).releaseFile("a.txt", "id-a.txt");
+
+        reclaimer.processBatch();
+
+        verify(pendingDeletes, never()).retryLater(any(), any(), any());
+    }
+
+    @Test
+    void processPendingDeletes_ShouldDoNothing_WhenNotLeader() {
+        when(leaderElection.isLeader(AttachmentReclaimer.DELETES_JOB)).thenReturn(false);
+
+        reclaimer.processPendingDeletes();
+
+        verifyNoInteractions(pendingDeletes, fileStorageService);
+    }
+
+    @Test
+    void sweepOrphans_ShouldReclaimOnlyUnreferencedFiles_OlderThanMinimumAge() throws IOException {
+        Instant cutoff = NOW.minusSeconds(3600);
+        when(logMongoRepository.referencedFilePaths()).thenReturn(Set.of("kept.txt"));
+        doAnswer(invocation -> {
+            BiConsumer<String, Long> visitor = invocation.getArgument(1);
+            visitor.accept("kept.txt", 10L);
+            visitor.accept("orphan.txt", 20L);
+            visitor.accept("reused.bin", 30L);
+            return null;
+        }).when(fileStorageService).scanStoredFiles(eq(cutoff), any());
+        when(fileStorageService.deleteOrphan("orphan.txt", cutoff)).thenReturn(true);
+        // Content-addressed blob that an upload referenced again after the cutoff
+        when(fileStorageService.deleteOrphan("reused.bin", cutoff)).thenReturn(false);
+
+        AttachmentReclaimer.SweepResult result = reclaimer.sweepOrphans();
+
+        assertThat(result.getScanned()).isEqualTo(3);
+        assertThat(result.getOrphans()).isEqualTo(2);
+        assertThat(result.getReclaimed()).isEqualTo(1);
+        assertThat(result.getReclaimedBytes()).isEqualTo(20);
+        verify(fileStorageService, never()).deleteOrphan(eq("kept.txt"), any());
+        assertThat(meterRegistry.get("attachments.sweep.reclaimed.bytes").counter().count()).isEqualTo(20);
+    }
+
+    private static PendingDelete entry(String filename, int attempts) {
+        return new PendingDelete("id-" + filename, filename, NOW, NOW, attempts, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.storage.LocalAttachmentStore;
+import com.echotrace.storage.TieredAttachmentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentTieringTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+    private static final Duration COLD_AFTER = Duration.ofDays(30);
+
+    @TempDir
+    Path dir;
+
+    private LocalAttachmentStore hot;
+    private LocalAttachmentStore cold;
+    private TieredAttachmentStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private AttachmentTiering tiering;
+
+    @BeforeEach
+    void setUp() {
+        hot = new LocalAttachmentStore(dir.resolve("hot"));
+        cold = new LocalAttachmentStore(dir.resolve("cold"));
+        meterRegistry = new SimpleMeterRegistry();
+        store = new TieredAttachmentStore(hot, cold, Duration.ofHours(1));
+        tiering = new AttachmentTiering(store, meterRegistry, COLD_AFTER.toMillis(), 2,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void demoteColdFiles_ShouldMoveFilesNotReadForColdAfterAge_UpToMaxPerRun() throws IOException {
+        storeReadAt("old1.txt", NOW.minus(COLD_AFTER).minusSeconds(1));
+        storeReadAt("old2.txt", NOW.minus(Duration.ofDays(90)));
+        storeReadAt("old3.txt", NOW.minus(Duration.ofDays(60)));
+        storeReadAt("recent.txt", NOW.minus(Duration.ofDays(29)));
+
+        tiering.demoteColdFiles();
+
+        assertThat(names(cold)).hasSize(4);
+        assertThat(names(hot)).hasSize(2).contains("recent.txt");
+        assertThat(meterRegistry.get("attachments.tiering.demoted").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("attachments.tiering.demoted.bytes").counter().count()).isEqualTo(2 * 7);
+    }
+
+    @Test
+    void demoteColdFiles_ShouldCopyHotOnlyFilesToColdTier_OnFirstRun() throws IOException {
+        hot.put("legacy.txt", Files.writeString(hot.stagingDir().resolve(".upload-legacy"), "content"));
+
+        tiering.demoteColdFiles();
+
+        assertThat(names(cold)).containsExactly("legacy.txt");
+        assertThat(names(hot)).containsExactly("legacy.txt");
+    }
+
+    private void storeReadAt(String name, Instant lastRead) throws IOException {
+        store.put(name, Files.writeString(hot.stagingDir().resolve(".upload-" + name), "content"));
+        Files.setLastModifiedTime(hot.localFile(name).orElseThrow(), FileTime.from(lastRead));
+    }
+
+    private static List<String> names(LocalAttachmentStore store) throws IOException {
+        List<String> names = new ArrayList<>();
+        store.forEach(object -> names.add(object.getName()));
+        return names;
+    }
+}
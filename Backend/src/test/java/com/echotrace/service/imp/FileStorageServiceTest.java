@@ -0,0 +1,183 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.model.AttachmentBlob;
+import com.echotrace.repository.AttachmentBlobRepository;
+import com.echotrace.storage.LocalAttachmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FileStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private ThreadPoolTaskExecutor executor;
+    private LocalAttachmentStore store;
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        store = new LocalAttachmentStore(root);
+        fileStorageService = new FileStorageService(store, mock(AttachmentBlobRepository.class), executor, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void saveFiles_ShouldStoreInParallel_AndKeepUploadOrder() throws IOException {
+        // Each upload blocks until the other one is being read, which only works when both run at once
+        CountDownLatch bothReading = new CountDownLatch(2);
+        List<String> stored = fileStorageService.saveFiles(List.of(
+                blockingFile("first.txt", "one", bothReading),
+                blockingFile("second.log", "two", bothReading)));
+
+        assertThat(stored).hasSize(2);
+        assertThat(stored.get(0)).endsWith(".txt");
+        assertThat(stored.get(1)).endsWith(".log");
+        assertThat(Files.readString(store.localFile(stored.get(0)).orElseThrow())).isEqualTo("one");
+        assertThat(Files.readString(store.localFile(stored.get(1)).orElseThrow())).isEqualTo("two");
+        assertThat(store.stagingDir()).isEmptyDirectory();
+    }
+
+    @Test
+    void saveFiles_ShouldReleaseStoredFiles_WhenOneIsRejected() throws IOException {
+        MockMultipartFile valid = new MockMultipartFile("files", "notes.txt", "text/plain", "ok".getBytes());
+        MockMultipartFile noExtension = new MockMultipartFile("files", "README", "text/plain", "x".getBytes());
+
+        assertThatThrownBy(() -> fileStorageService.saveFiles(List.of(valid, noExtension)))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(countUploads()).isZero();
+    }
+
+    @Test
+    void purgeStaging_ShouldOnlyDeleteStaleStagedFiles() throws IOException {
+        Instant cutoff = Instant.parse("2026-03-01T00:00:00Z");
+        Path stale = Files.writeString(store.stagingDir().resolve(".upload-stale"), "x");
+        Files.setLastModifiedTime(stale, FileTime.from(cutoff.minusSeconds(60)));
+        Path current = Files.writeString(store.stagingDir().resolve(".upload-current"), "y");
+        Files.setLastModifiedTime(current, FileTime.from(cutoff.plusSeconds(60)));
+
+        assertThat(fileStorageService.purgeStaging(cutoff)).isEqualTo(1);
+        assertThat(stale).doesNotExist();
+        assertThat(current).exists();
+    }
+
+    @Test
+    void saveFile_ShouldWriteBlobAgain_WhenAnotherNodeIsDeletingIt() throws Exception {
+        AttachmentBlobRepository blobRepository = mock(AttachmentBlobRepository.class);
+        FileStorageService contentAddressed = new FileStorageService(store, blobRepository, executor, true);
+        String blobName = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest("shared".getBytes())) + ".txt";
+        // The file the other node is about to delete: stat finds it, but it must not be relied on
+        store.put(blobName, Files.writeString(store.stagingDir().resolve(".upload-old"), "old"));
+        AttachmentBlob claimed = blob(blobName, 1, LocalDateTime.now());
+        when(blobRepository.increment(blobName, 6)).thenReturn(claimed);
+        when(blobRepository.find(blobName)).thenReturn(claimed, blob(blobName, 2, null));
+
+        String stored = contentAddressed.saveFile(new MockMultipartFile("files", "a.txt", "text/plain",
+                "shared".getBytes()));
+
+        assertThat(stored).isEqualTo(blobName);
+        assertThat(Files.readString(store.localFile(blobName).orElseThrow())).isEqualTo("shared");
+        verify(blobRepository, times(2)).find(blobName);
+    }
+
+    @Test
+    void releaseFile_ShouldOnlyDelete_WhenTheClaimIsWon() throws IOException {
+        AttachmentBlobRepository blobRepository = mock(AttachmentBlobRepository.class);
+        FileStorageService contentAddressed = new FileStorageService(store, blobRepository, executor, true);
+        store.put("kept.txt", Files.writeString(store.stagingDir().resolve(".upload-kept"), "k"));
+        store.put("gone.txt", Files.writeString(store.stagingDir().resolve(".upload-gone"), "g"));
+        when(blobRepository.decrement("kept.txt", "r1")).thenReturn(0L);
+        // Referenced again, or being deleted by another node
+        when(blobRepository.claimUnreferenced("kept.txt")).thenReturn(null);
+        AttachmentBlob claim = blob("gone.txt", 0, LocalDateTime.now());
+        when(blobRepository.decrement("gone.txt", "r2")).thenReturn(0L);
+        when(blobRepository.claimUnreferenced("gone.txt")).thenReturn(claim);
+
+        contentAddressed.releaseFile("kept.txt", "r1");
+        contentAddressed.releaseFile("gone.txt", "r2");
+
+        assertThat(store.localFile("kept.txt")).isPresent();
+        assertThat(store.localFile("gone.txt")).isEmpty();
+        verify(blobRepository).finishDelete(claim);
+    }
+
+    @Test
+    void releaseFile_ShouldLiftTheClaim_WhenTheDeleteFails() throws IOException {
+        AttachmentBlobRepository blobRepository = mock(AttachmentBlobRepository.class);
+        FileStorageService contentAddressed = new FileStorageService(store, blobRepository, executor, true);
+        // A non-empty directory under the file's name cannot be deleted
+        Files.writeString(Files.createDirectories(root.resolve("stuck.txt")).resolve("child"), "x");
+        AttachmentBlob claim = blob("stuck.txt", 0, LocalDateTime.now());
+        when(blobRepository.decrement("stuck.txt", "r1")).thenReturn(0L);
+        when(blobRepository.claimUnreferenced("stuck.txt")).thenReturn(claim);
+
+        assertThatThrownBy(() -> contentAddressed.releaseFile("stuck.txt", "r1")).isInstanceOf(IOException.class);
+
+        verify(blobRepository).abandonDelete(claim);
+        verify(blobRepository, never()).finishDelete(any());
+    }
+
+    private static AttachmentBlob blob(String name, long refCount, LocalDateTime deletingSince) {
+        AttachmentBlob blob = new AttachmentBlob();
+        blob.setId(name);
+        blob.setRefCount(refCount);
+        blob.setGeneration(refCount + 1);
+        blob.setDeletingSince(deletingSince);
+        return blob;
+    }
+
+    private long countUploads() throws IOException {
+        long[] count = new long[1];
+        store.forEach(object -> count[0]++);
+        return count[0];
+    }
+
+    private static MockMultipartFile blockingFile(String name, String content, CountDownLatch bothReading) {
+        return new MockMultipartFile("files", name, "text/plain", content.getBytes()) {
+            @Override
+            public void transferTo(File dest) throws IOException {
+                bothReading.countDown();
+                try {
+                    if (!bothReading.await(5, TimeUnit.SECONDS)) {
+                        throw new IOException("Files were stored one after the other");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                super.transferTo(dest);
+            }
+        };
+    }
+}
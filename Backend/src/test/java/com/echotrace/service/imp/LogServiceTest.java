@@ -1,30 +1,49 @@
 package com.echotrace.service.imp;
 
+import com.echotrace.dto.CountMode;
+import com.echotrace.dto.CursorPage;
+import com.echotrace.dto.ImportResult;
 import com.echotrace.dto.LogEntryRequest;
 import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.dto.SearchMode;
+import com.echotrace.exception.InvalidCursorException;
 import com.echotrace.exception.LogNotFoundException;
+import com.echotrace.exception.LogVersionConflictException;
 import com.echotrace.exception.UnauthorizedException;
 import com.echotrace.model.LogEntry;
 import com.echotrace.model.User;
+import com.echotrace.repository.JournalVersionRepository;
 import com.echotrace.repository.LogMongoRepository;
 import com.echotrace.repository.LogRepository;
+import com.echotrace.repository.LogSearchIndex;
 import com.echotrace.repository.UserRepository;
 import com.echotrace.util.LogEntryMapper;
+import com.echotrace.util.PaginationUtil;
 import com.echotrace.util.SecurityUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.Document;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,7 +60,19 @@ class LogServiceTest {
     @Mock
     private FileStorageService fileStorageService;
     @Mock
+    private AttachmentReclaimer attachmentReclaimer;
+    @Mock
     private LogEntryMapper mapper;
+    @Mock
+    private LogSearchIndex searchIndex;
+    @Mock
+    private JournalVersionRepository journalVersions;
+    @Spy
+    private LogResponseCache responseCache = new LogResponseCache(new SimpleMeterRegistry(), 1_000_000, 60_000);
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @InjectMocks
     private LogService logService;
@@ -99,7 +130,7 @@ class LogServiceTest {
         );
 
         when(mapper.toEntity(request)).thenReturn(logEntry);
-        when(fileStorageService.saveFile(mockFile)).thenReturn("file1.txt");
+        when(fileStorageService.saveFiles(List.of(mockFile))).thenReturn(List.of("file1.txt"));
         when(repository.save(any(LogEntry.class))).thenReturn(logEntry);
         when(mapper.toResponse(logEntry)).thenReturn(logResponse);
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
@@ -111,7 +142,8 @@ class LogServiceTest {
         assertThat(response.getAttachments()).containsExactly("file1.txt");
 
         verify(repository).save(any(LogEntry.class));
-        verify(fileStorageService).saveFile(mockFile);
+        verify(fileStorageService).saveFiles(List.of(mockFile));
+        verify(searchIndex).index(logEntry, 0L);
     }
 
     @Test
@@ -123,6 +155,21 @@ class LogServiceTest {
                 .isInstanceOf(UsernameNotFoundException.class);
     }
 
+    @Test
+    void createLog_ShouldReleaseStoredFiles_WhenSaveFails() {
+        LogEntryRequest request = new LogEntryRequest();
+        MultipartFile upload = new MockMultipartFile("files", "trace.txt", "text/plain", "x".getBytes());
+        when(mapper.toEntity(request)).thenReturn(logEntry);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(fileStorageService.saveFiles(List.of(upload))).thenReturn(List.of("trace.txt"));
+        when(repository.save(any(LogEntry.class))).thenThrow(new IllegalStateException("write failed"));
+
+        assertThatThrownBy(() -> logService.createLog(request, List.of(upload)))
+                .hasMessage("write failed");
+        verify(attachmentReclaimer).scheduleDelete(List.of("trace.txt"));
+        verify(searchIndex, never()).index(any(), anyLong());
+    }
+
     @Test
     void getLogById_ShouldReturnResponse_WhenOwner() {
         when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
@@ -133,6 +180,64 @@ class LogServiceTest {
         assertThat(response.getCreatedBy()).isEqualTo("testUser");
     }
 
+    @Test
+    void getLogById_ShouldServeRepeatedReadsFromCache_UntilUpdated() {
+        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), isNull(), any(), any(), any())).thenReturn(logEntry);
+
+        logService.getLogById("log1");
+        LogEntryResponse cached = logService.getLogById("log1");
+        verify(repository, times(1)).findById("log1");
+        assertThat(cached).isSameAs(logResponse);
+
+        LogEntryRequest request = new LogEntryRequest();
+        request.setTitle("Renamed");
+        logService.updateLog("log1", request, null);
+        logService.getLogById("log1");
+
+        // One load before the update, one after the invalidation; the update itself does not read
+        verify(repository, times(2)).findById("log1");
+    }
+
+    @Test
+    void getLogETag_ShouldFollowUpdatedAt() {
+        logEntry.setUpdatedAt(LocalDateTime.of(2026, 10, 17, 8, 0));
+        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), isNull(), any(), any(), any())).thenReturn(logEntry);
+
+        String before = logService.getLogETag("log1");
+        LogEntryRequest request = new LogEntryRequest();
+        request.setTitle("Renamed");
+        logService.updateLog("log1", request, null);
+        logEntry.setUpdatedAt(logEntry.getUpdatedAt().plusSeconds(1));
+
+        assertThat(before).startsWith("W/\"");
+        assertThat(logService.getLogETag("log1")).isNotEqualTo(before);
+        verify(journalVersions).bump("testUser");
+    }
+
+    @Test
+    void getJournalETag_ShouldCarryUserAndVersion() {
+        when(journalVersions.current("testUser")).thenReturn(7L);
+
+        assertThat(logService.getJournalETag()).isEqualTo(
+                "W/\"" + Integer.toHexString("testUser".hashCode()) + "-7\"");
+    }
+
+    @Test
+    void getLogById_ShouldCheckOwnership_OnCacheHit() {
+        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+        logService.getLogById("log1");
+
+        securityUtilMock.when(SecurityUtil::getCurrentUsername).thenReturn("otherUser");
+
+        assertThatThrownBy(() -> logService.getLogById("log1"))
+                .isInstanceOf(UnauthorizedException.class);
+        verify(repository, times(1)).findById("log1");
+    }
+
     @Test
     void getLogById_ShouldThrow_WhenNotFound() {
         when(repository.findById("wrongId")).thenReturn(Optional.empty());
@@ -162,35 +267,264 @@ class LogServiceTest {
         assertThat(result.getContent()).hasSize(1);
     }
 
+    @Test
+    void getAllLogsAfter_ShouldReturnSliceWithNextCursor_WhenMoreEntriesFollow() {
+        LogEntry older = new LogEntry();
+        older.setId("log0");
+        older.setCreatedAt(logEntry.getCreatedAt().minusDays(1));
+        older.setCreatedBy(logEntry.getCreatedBy());
+
+        when(logMongoRepository.filterLogsAfter(
+                eq("testUser"), any(), any(), any(), any(), any(), any(), eq(SearchMode.REGEX), isNull(), eq(2),
+                eq(false)))
+                .thenReturn(new ArrayList<>(List.of(logEntry, older)));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+
+        CursorPage<LogEntryResponse> result = logService.getAllLogs("", 1);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isTrue();
+        PaginationUtil.Cursor cursor = PaginationUtil.decodeCursor(result.getNextCursor());
+        assertThat(cursor.getId()).isEqualTo("log1");
+        assertThat(cursor.getCreatedAt()).isEqualTo(logEntry.getCreatedAt());
+    }
+
+    @Test
+    void getAllLogsAfter_ShouldClampSizeToOneThroughMax() {
+        when(logMongoRepository.filterLogsAfter(
+                eq("testUser"), any(), any(), any(), any(), any(), any(), eq(SearchMode.REGEX), isNull(), anyInt(),
+                eq(false)))
+                .thenReturn(new ArrayList<>(List.of(logEntry, logEntry)));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+
+        CursorPage<LogEntryResponse> empty = logService.getAllLogs("", 0);
+        logService.getAllLogs("", -5);
+        logService.getAllLogs("", 10_000);
+
+        assertThat(empty.getContent()).hasSize(1);
+        assertThat(empty.isHasNext()).isTrue();
+        InOrder order = inOrder(logMongoRepository);
+        order.verify(logMongoRepository, times(2)).filterLogsAfter(
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(2), anyBoolean());
+        order.verify(logMongoRepository).filterLogsAfter(
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(PaginationUtil.MAX_PAGE_SIZE + 1),
+                anyBoolean());
+    }
+
+    @Test
+    void getAllLogsAfter_ShouldThrow_WhenCursorIsMalformed() {
+        assertThatThrownBy(() -> logService.getAllLogs("not-a-cursor", 10))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
     @Test
     void updateLog_ShouldUpdateFields_WhenOwner() {
         LogEntryRequest request = new LogEntryRequest();
         request.setTitle("Updated Title");
+        request.setVersion(3L);
+        logEntry.setVersion(3L);
 
-        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
-        when(repository.save(any(LogEntry.class))).thenReturn(logEntry);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), eq(3L), update.capture(), any(), any())).thenReturn(logEntry);
         when(mapper.toResponse(logEntry)).thenReturn(logResponse);
 
         LogEntryResponse response = logService.updateLog("log1", request, null);
 
         assertThat(response).isNotNull();
-        verify(repository).save(logEntry);
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("title", "Updated Title")
+                .doesNotContainKey("problem");
+        assertThat(logEntry.getTitle()).isEqualTo("Updated Title");
+        assertThat(logEntry.getVersion()).isEqualTo(4L);
+        verify(repository, never()).save(any(LogEntry.class));
     }
 
     @Test
-    void deleteLog_ShouldDeleteLogAndFiles_WhenOwner() throws IOException {
+    void updateLog_ShouldRemoveAndAddFilesInOneWrite_AndAcceptTheReturnedVersion() {
+        logEntry.setFilePaths(List.of("old.txt"));
+        logEntry.setVersion(3L);
+        LogEntryRequest request = new LogEntryRequest();
+        request.setFilesToDelete(List.of("old.txt", "unknown.txt"));
+        request.setVersion(3L);
+        MultipartFile upload = new MockMultipartFile("files", "new.txt", "text/plain", "x".getBytes());
+        when(fileStorageService.saveFiles(List.of(upload))).thenReturn(List.of("new.txt"));
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), eq(3L), any(),
+                eq(List.of("old.txt", "unknown.txt")), eq(List.of("new.txt")))).thenReturn(logEntry);
+
+        logService.updateLog("log1", request, List.of(upload));
+
+        verify(attachmentReclaimer).scheduleDelete(List.of("old.txt"));
+        assertThat(logEntry.getFilePaths()).containsExactly("new.txt");
+        assertThat(logEntry.getVersion()).isEqualTo(4L);
+
+        // The next save carries the version the first one reported, and the guarded update must match it
+        LogEntryRequest next = new LogEntryRequest();
+        next.setTitle("Edited again");
+        next.setVersion(4L);
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), eq(4L), any(), any(), any())).thenReturn(logEntry);
+        logService.updateLog("log1", next, null);
+
+        verify(logMongoRepository, times(2)).updateOwned(any(), any(), any(), any(), any(), any());
+        assertThat(logEntry.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    void updateLog_ShouldThrowConflict_WhenVersionIsStale() {
+        logEntry.setVersion(5L);
+        LogEntryRequest request = new LogEntryRequest();
+        request.setTitle("Stale edit");
+        request.setVersion(4L);
+        MultipartFile upload = new MockMultipartFile("files", "new.txt", "text/plain", "x".getBytes());
+        when(fileStorageService.saveFiles(List.of(upload))).thenReturn(List.of("new.txt"));
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), eq(4L), any(), any(), any())).thenReturn(null);
+        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
+
+        assertThatThrownBy(() -> logService.updateLog("log1", request, List.of(upload)))
+                .isInstanceOf(LogVersionConflictException.class);
+        // The upload of the rejected update does not stay behind
+        verify(attachmentReclaimer).scheduleDelete(List.of("new.txt"));
+        verify(journalVersions, never()).bump(anyString());
+    }
+
+    @Test
+    void deleteLog_ShouldDeleteLogAndFiles_WhenOwner() {
         logEntry.setFilePaths(List.of("file1.txt"));
         when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
-        when(fileStorageService.loadFile("file1.txt")).thenReturn(Path.of("file1.txt"));
+        // An update added a file between the read and the delete; the removed copy is what gets released
+        LogEntry removed = new LogEntry();
+        removed.setFilePaths(List.of("file1.txt", "file2.txt"));
+        when(logMongoRepository.removeOwned("log1", "testUser")).thenReturn(removed);
+
+        logService.deleteLog("log1");
+
+        // Files are queued only once the log is gone, and never deleted in the request
+        InOrder order = inOrder(logMongoRepository, attachmentReclaimer);
+        order.verify(logMongoRepository).removeOwned("log1", "testUser");
+        order.verify(attachmentReclaimer).scheduleDelete(List.of("file1.txt", "file2.txt"));
+        verify(repository, never()).delete(any(LogEntry.class));
+        verifyNoInteractions(fileStorageService);
+        verify(searchIndex).remove("testUser", "log1", 0L);
+    }
 
-        try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-            filesMock.when(() -> Files.deleteIfExists(any(Path.class))).thenReturn(true);
+    @Test
+    void deleteLog_ShouldThrowNotFound_WhenLogIsRemovedConcurrently() {
+        when(repository.findById("log1")).thenReturn(Optional.of(logEntry));
+        when(logMongoRepository.removeOwned("log1", "testUser")).thenReturn(null);
 
-            logService.deleteLog("log1");
+        assertThatThrownBy(() -> logService.deleteLog("log1")).isInstanceOf(LogNotFoundException.class);
 
-            filesMock.verify(() -> Files.deleteIfExists(Path.of("file1.txt")));
-            verify(repository).delete(logEntry);
+        verifyNoInteractions(attachmentReclaimer);
+        verify(journalVersions, never()).bump(anyString());
+    }
+
+    @Test
+    void exportLogs_ShouldWriteOneJsonObjectPerLine() throws IOException {
+        LogEntryResponse secondResponse = LogEntryResponse.builder().id("log2").title("Second").build();
+        LogEntry second = new LogEntry();
+        second.setId("log2");
+        when(logMongoRepository.streamByUsername("testUser")).thenReturn(Stream.of(logEntry, second));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+        when(mapper.toResponse(second)).thenReturn(secondResponse);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        logService.exportLogs(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("log1");
+        assertThat(objectMapper.readTree(lines[1]).get("title").asText()).isEqualTo("Second");
+    }
+
+    @Test
+    void exportLogs_ShouldFlushOncePerBatch_NotPerRecord() throws IOException {
+        List<LogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            entries.add(new LogEntry());
         }
+        when(logMongoRepository.streamByUsername("testUser")).thenReturn(entries.stream());
+        when(mapper.toResponse(any(LogEntry.class))).thenReturn(logResponse);
+
+        int[] flushes = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+        logService.exportLogs(out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(250);
+        // After records 100 and 200, plus the final one on close
+        assertThat(flushes[0]).isEqualTo(3);
+    }
+
+    @Test
+    void importLogs_ShouldInsertValidLinesInBatches_AndReportBadLines() throws IOException {
+        ReflectionTestUtils.setField(logService, "importBatchSize", 2);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(mapper.toEntity(any(LogEntryRequest.class))).thenAnswer(inv -> new LogEntry());
+        when(logMongoRepository.insertUnordered(anyList()))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of(0, "E11000 duplicate key"));
+
+        String ndjson = """
+                {"title":"One","problem":"p","solution":"s"}
+                {"title":"","problem":"p","solution":"s"}
+                {"title":"Two","problem":"p","solution":"s","tags":["java"]}
+                {not json}
+
+                {"title":"Three","problem":"p","solution":"s"}
+                """;
+
+        ImportResult result = logService.importLogs(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(ImportResult.LineError::getLine).containsExactly(2, 4, 6);
+        assertThat(result.getErrors().get(0).getMessage()).contains("title");
+        verify(userRepository, times(1)).findByUsername("testUser");
+        verify(logMongoRepository, times(2)).insertUnordered(anyList());
+        verify(searchIndex).index(eq("testUser"), argThat(entries -> entries.size() == 2), anyLong());
+    }
+
+    @Test
+    void importLogs_ShouldAcceptJsonArray() throws IOException {
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(mapper.toEntity(any(LogEntryRequest.class))).thenAnswer(inv -> new LogEntry());
+        // The batch list is reused after the insert, so look at it while the call is in flight
+        List<Long> versions = new ArrayList<>();
+        when(logMongoRepository.insertUnordered(anyList())).thenAnswer(inv -> {
+            List<LogEntry> entries = inv.getArgument(0);
+            entries.forEach(entry -> versions.add(entry.getVersion()));
+            return Map.of();
+        });
+
+        String json = "[{\"title\":\"One\",\"problem\":\"p\",\"solution\":\"s\"},\n"
+                + " {\"title\":\"Two\",\"problem\":\"p\",\"solution\":\"s\"}]";
+
+        ImportResult result = logService.importLogs(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(versions).containsExactly(0L, 0L);
+    }
+
+    @Test
+    void importLogs_ShouldReportElementPosition_ForSingleLineJsonArray() throws IOException {
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(testUser));
+        when(mapper.toEntity(any(LogEntryRequest.class))).thenAnswer(inv -> new LogEntry());
+        when(logMongoRepository.insertUnordered(anyList())).thenReturn(Map.of());
+
+        String json = "[{\"title\":\"One\",\"problem\":\"p\",\"solution\":\"s\"},"
+                + "{\"title\":\"\",\"problem\":\"p\",\"solution\":\"s\"},"
+                + "{\"title\":\"Three\",\"problem\":\"p\",\"solution\":\"s\"},"
+                + "{\"title\":\"Four\" \"problem\"}]";
+
+        ImportResult result = logService.importLogs(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportResult.LineError::getLine).containsExactly(2, 4);
+        assertThat(result.getErrors().get(1).getMessage()).startsWith("Malformed JSON");
     }
 
     @Test
@@ -200,14 +534,82 @@ class LogServiceTest {
 
         Page<LogEntry> page = new PageImpl<>(List.of(logEntry));
         when(logMongoRepository.filterLogs(
-                eq("testUser"), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+                eq("testUser"), any(), any(), any(), any(), any(), any(), eq(SearchMode.REGEX), eq(CountMode.EXACT),
+                eq(false), any(Pageable.class)))
                 .thenReturn(page);
         when(mapper.toResponse(logEntry)).thenReturn(logResponse);
 
         Page<LogEntryResponse> result = logService.filterLogs(
-                "spring", "java", null, null, null, null, 0, 10, "createdAt");
+                "spring", "java", null, null, null, null, SearchMode.REGEX, CountMode.EXACT, 0, 10, "createdAt");
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getMatchedOn()).isNotEmpty();
+        assertThat(result.getContent().get(0).getHighlights().get("title")).containsExactly(new int[]{0, 6});
+    }
+
+    @Test
+    void filterLogs_ShouldReportKeyword_WhenTextModeMatchedAStemmedForm() {
+        // "timeouts" is found through the stem of "timeout", which a substring check would reject
+        logEntry.setTitle("Gateway timeout");
+        logEntry.setProblem(null);
+        logEntry.setSolution(null);
+        logEntry.setScore(7.5f);
+        LogEntryResponse response = LogEntryResponse.builder().id("log1").score(7.5f).build();
+
+        when(logMongoRepository.filterLogs(
+                eq("testUser"), eq("timeouts"), any(), any(), any(), any(), any(), eq(SearchMode.TEXT),
+                eq(CountMode.NONE), eq(false), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(logEntry)));
+        when(mapper.toResponse(logEntry)).thenReturn(response);
+
+        Page<LogEntryResponse> result = logService.filterLogs(
+                "timeouts", null, null, null, null, null, SearchMode.TEXT, CountMode.NONE, 0, 10, "createdAt");
+
+        assertThat(result.getContent().get(0).getMatchedOn()).containsExactly("keyword: timeouts");
+        assertThat(result.getContent().get(0).getScore()).isEqualTo(7.5f);
+    }
+
+    @Test
+    void filterLogs_ShouldHighlightEachWord_AndReportTheKeywordLikeTheSummaryPath() {
+        logEntry.setTitle("Pool exhausted under load");
+        logEntry.setProblem("Mongo connection pool");
+        LogEntrySummary summary = LogEntrySummary.builder().id("log1").title(logEntry.getTitle()).build();
+
+        when(logMongoRepository.filterLogs(
+                eq("testUser"), eq("connection pool"), any(), any(), any(), any(), any(), eq(SearchMode.REGEX),
+                eq(CountMode.NONE), anyBoolean(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(logEntry)));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+        when(mapper.toSummary(logEntry)).thenReturn(summary);
+
+        LogEntryResponse full = logService.filterLogs("connection pool", null, null, null, null, null,
+                SearchMode.REGEX, CountMode.NONE, 0, 10, "createdAt").getContent().get(0);
+        logService.filterLogSummaries("connection pool", null, null, null, null, null,
+                SearchMode.REGEX, CountMode.NONE, 0, 10, "createdAt");
+
+        assertThat(full.getHighlights().get("title")).containsExactly(new int[]{0, 4});
+        assertThat(full.getHighlights().get("problem")).containsExactly(new int[]{6, 16}, new int[]{17, 21});
+        assertThat(summary.getHighlights().get("title")).containsExactly(new int[]{0, 4});
+        assertThat(full.getMatchedOn()).containsExactly("keyword: connection pool");
+        assertThat(summary.getMatchedOn()).isEqualTo(full.getMatchedOn());
+    }
+
+    @Test
+    void filterLogSummaries_ShouldUseSummaryProjectionAndReportMatches() {
+        logEntry.setTags(List.of("java"));
+        LogEntrySummary summary = LogEntrySummary.builder().id("log1").build();
+
+        when(logMongoRepository.filterLogs(
+                eq("testUser"), eq("spring"), eq("java"), any(), any(), any(), any(),
+                eq(SearchMode.REGEX), eq(CountMode.NONE), eq(true), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(logEntry)));
+        when(mapper.toSummary(logEntry)).thenReturn(summary);
+
+        Page<LogEntrySummary> result = logService.filterLogSummaries(
+                "spring", "java", null, null, null, null, SearchMode.REGEX, CountMode.NONE, 0, 10, "createdAt");
+
+        assertThat(result.getContent()).containsExactly(summary);
+        assertThat(summary.getMatchedOn()).containsExactly("tag: java", "keyword: spring");
+        verify(mapper, never()).toResponse(any());
     }
 }
@@ -0,0 +1,165 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.dto.LogEntryRequest;
+import com.echotrace.dto.LogEntryResponse;
+import com.echotrace.exception.LogVersionConflictException;
+import com.echotrace.exception.UnauthorizedException;
+import com.echotrace.model.LogEntry;
+import com.echotrace.model.User;
+import com.echotrace.repository.ReactiveLogMongoRepository;
+import com.echotrace.repository.ReactiveLogRepository;
+import com.echotrace.repository.ReactiveUserRepository;
+import com.echotrace.util.LogEntryMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLogServiceTest {
+
+    @Mock
+    private ReactiveLogRepository repository;
+    @Mock
+    private ReactiveLogMongoRepository logMongoRepository;
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private AttachmentReclaimer attachmentReclaimer;
+    @Mock
+    private LogEntryMapper mapper;
+
+    @InjectMocks
+    private ReactiveLogService logService;
+
+    private LogEntry logEntry;
+    private LogEntryResponse logResponse;
+
+    @BeforeEach
+    void setUp() {
+        logEntry = new LogEntry();
+        logEntry.setId("log1");
+        logEntry.setTitle("Test Log");
+        logEntry.setVersion(3L);
+        logEntry.setCreatedBy(new LogEntry.EmbeddedUser("u1", "testUser"));
+        logEntry.setFilePaths(new ArrayList<>(List.of("a.txt")));
+
+        logResponse = LogEntryResponse.builder().id("log1").title("Test Log").build();
+    }
+
+    @Test
+    void getLogById_ShouldReturnLog_WhenOwnedByCurrentUser() {
+        when(repository.findById("log1")).thenReturn(Mono.just(logEntry));
+        when(mapper.toResponse(logEntry)).thenReturn(logResponse);
+
+        StepVerifier.create(logService.getLogById("log1").contextWrite(authenticatedAs("testUser")))
+                .expectNext(logResponse)
+                .verifyComplete();
+    }
+
+    @Test
+    void getLogById_ShouldFail_WhenOwnedBySomeoneElse() {
+        when(repository.findById("log1")).thenReturn(Mono.just(logEntry));
+
+        StepVerifier.create(logService.getLogById("log1").contextWrite(authenticatedAs("otherUser")))
+                .expectErrorMatches(e -> e instanceof UnauthorizedException
+                        && e.getMessage().equals("You cannot access this log."))
+                .verify();
+    }
+
+    @Test
+    void getAllLogs_ShouldFail_WhenNotAuthenticated() {
+        StepVerifier.create(logService.getAllLogs(0, 10, "createdAt,desc"))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void updateLog_ShouldFailWithConflict_WhenVersionMovedOn() {
+        LogEntryRequest request = new LogEntryRequest();
+        request.setTitle("Updated");
+        request.setVersion(2L);
+        when(logMongoRepository.updateOwned(eq("log1"), eq("testUser"), eq(2L), any(), any(), any())).thenReturn(Mono.empty());
+        when(repository.findById("log1")).thenReturn(Mono.just(logEntry));
+
+        StepVerifier.create(logService.updateLog("log1", request, Flux.empty()).contextWrite(authenticatedAs("testUser")))
+                .expectError(LogVersionConflictException.class)
+                .verify();
+    }
+
+    @Test
+    void createLog_ShouldReleaseStoredFiles_WhenSaveFails() throws IOException {
+        User user = new User();
+        user.setId("u1");
+        user.setUsername("testUser");
+        when(userRepository.findByUsername("testUser")).thenReturn(Mono.just(user));
+        when(mapper.toEntity(any())).thenReturn(new LogEntry());
+        when(fileStorageService.saveFile(eq("notes.txt"), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream content = invocation.getArgument(1);
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("stack trace");
+            return "stored.txt";
+        });
+        when(repository.save(any(LogEntry.class))).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+        StepVerifier.create(logService.createLog(new LogEntryRequest(), Flux.just(filePart("notes.txt", "stack trace")))
+                        .contextWrite(authenticatedAs("testUser")))
+                .expectErrorMessage("write failed")
+                .verify();
+
+        verify(attachmentReclaimer).scheduleDelete(List.of("stored.txt"));
+    }
+
+    @Test
+    void deleteLog_ShouldReleaseFiles_AfterDeletingLog() {
+        when(repository.findById("log1")).thenReturn(Mono.just(logEntry));
+        when(logMongoRepository.removeOwned("log1", "testUser")).thenReturn(Mono.just(logEntry));
+
+        StepVerifier.create(logService.deleteLog("log1").contextWrite(authenticatedAs("testUser")))
+                .verifyComplete();
+
+        verify(attachmentReclaimer).scheduleDelete(List.of("a.txt"));
+    }
+
+    private static Context authenticatedAs(String username) {
+        return ReactiveSecurityContextHolder.withAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private static FilePart filePart(String filename, String content) {
+        FilePart part = mock(FilePart.class);
+        when(part.filename()).thenReturn(filename);
+        when(part.transferTo(any(Path.class))).thenAnswer(invocation -> Mono.fromRunnable(() -> {
+            try {
+                Files.writeString(invocation.getArgument(0), content);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        return part;
+    }
+}
@@ -0,0 +1,194 @@
+package com.echotrace.service.imp;
+
+import com.echotrace.exception.InvalidReminderScheduleException;
+import com.echotrace.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ReminderService reminderService;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    private MutableClock clock;
+
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // 2026-10-19 is a Monday
+        clock = new MutableClock(Instant.parse("2026-10-19T19:59:30Z"));
+        scheduler = new ReminderScheduler(mongoTemplate, reminderService, leaderElection, 300_000, 3_600_000, clock);
+    }
+
+    private User user(String username, String time, String zone, String nextReminderAt) {
+        User user = new User();
+        user.setUsername(username);
+        user.setReminderTime(time);
+        user.setTimeZone(zone);
+        user.setRemindersEnabled(true);
+        user.setNextReminderAt(nextReminderAt == null ? null : Instant.parse(nextReminderAt));
+        return user;
+    }
+
+    private BulkOperations stubBulkOps() {
+        BulkOperations bulk = mock(BulkOperations.class, RETURNS_SELF);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(User.class))).thenReturn(bulk);
+        return bulk;
+    }
+
+    @Test
+    void nextOccurrence_ShouldHonourZoneAndDst() {
+        Instant after = Instant.parse("2026-10-17T19:00:00Z");
+
+        assertEquals(Instant.parse("2026-10-17T20:00:00Z"), ReminderScheduler.nextOccurrence("20:00", "UTC", after));
+        assertEquals(Instant.parse("2026-10-18T20:00:00Z"),
+                ReminderScheduler.nextOccurrence("20:00", "UTC", Instant.parse("2026-10-17T20:00:00Z")));
+        assertEquals(Instant.parse("2026-10-18T14:30:00Z"), ReminderScheduler.nextOccurrence("20:00", "Asia/Kolkata", after));
+        // 02:30 does not exist in New York on 2026-03-08, it becomes 03:30 EDT
+        assertEquals(Instant.parse("2026-03-08T07:30:00Z"),
+                ReminderScheduler.nextOccurrence("02:30", "America/New_York", Instant.parse("2026-03-08T00:00:00Z")));
+        assertThrows(InvalidReminderScheduleException.class,
+                () -> ReminderScheduler.nextOccurrence("20:00", "Mars/Olympus", after));
+    }
+
+    @Test
+    void tick_ShouldDispatchOnlyTheDueShard() {
+        when(leaderElection.isLeader("reminders")).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(User.class)))
+                .thenReturn(List.of(user("alice", "20:00", "UTC", "2026-10-19T20:00:00Z")));
+        when(mongoTemplate.stream(any(Query.class), eq(User.class)))
+                .thenReturn(Stream.of(
+                        user("alice", "20:00", "UTC", "2026-10-19T20:00:00Z"),
+                        user("bob", "20:01", "UTC", "2026-10-19T20:01:00Z")))
+                .thenReturn(Stream.empty());
+        BulkOperations bulk = stubBulkOps();
+
+        scheduler.tick();
+        verifyNoInteractions(reminderService);
+        assertEquals(2, scheduler.scheduledCount());
+
+        clock.set(Instant.parse("2026-10-19T20:00:00Z"));
+        scheduler.tick();
+
+        verify(reminderService).sendDailyReminder(List.of("alice"));
+        verify(reminderService).sendWeeklyReminder(List.of("alice"));
+        verify(bulk).updateOne(any(Query.class), any(Update.class));
+        assertEquals(1, scheduler.scheduledCount());
+    }
+
+    @Test
+    void tick_ShouldSkipButRescheduleRemindersMissedLongAgo() {
+        when(leaderElection.isLeader("reminders")).thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(User.class)))
+                .thenReturn(Stream.of(user("alice", "20:00", "UTC", "2026-10-17T20:00:00Z")));
+        when(mongoTemplate.find(any(Query.class), eq(User.class)))
+                .thenReturn(List.of(user("alice", "20:00", "UTC", "2026-10-17T20:00:00Z")));
+        BulkOperations bulk = stubBulkOps();
+
+        scheduler.tick();
+
+        verify(reminderService).sendDailyReminder(List.of());
+        verify(reminderService, never()).sendWeeklyReminder(any());
+        verify(bulk).execute();
+        // Next occurrence is 20:00 today, inside the loaded window, so it is queued right away
+        assertEquals(1, scheduler.scheduledCount());
+    }
+
+    @Test
+    void tick_ShouldNotSendWhenScheduleChangedElsewhere() {
+        when(leaderElection.isLeader("reminders")).thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(User.class)))
+                .thenReturn(Stream.of(user("alice", "20:00", "UTC", "2026-10-19T20:00:00Z")))
+                .thenReturn(Stream.empty());
+        // Moved to 21:00 on another node after the shard was loaded
+        when(mongoTemplate.find(any(Query.class), eq(User.class)))
+                .thenReturn(List.of(user("alice", "21:00", "UTC", "2026-10-19T21:00:00Z")));
+
+        scheduler.tick();
+        clock.set(Instant.parse("2026-10-19T20:00:00Z"));
+        scheduler.tick();
+
+        verifyNoInteractions(reminderService);
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(User.class));
+    }
+
+    @Test
+    void tick_ShouldDoNothingOnFollowerNodes() {
+        when(leaderElection.isLeader("reminders")).thenReturn(false);
+
+        scheduler.tick();
+
+        verifyNoInteractions(mongoTemplate, reminderService);
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    @Test
+    void reschedule_ShouldDropDisabledUsers() {
+        when(leaderElection.isLeader("reminders")).thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(User.class)))
+                .thenReturn(Stream.of(user("alice", "20:00", "UTC", "2026-10-19T20:00:00Z")));
+        scheduler.tick();
+        assertEquals(1, scheduler.scheduledCount());
+
+        User alice = user("alice", "20:00", "UTC", "2026-10-19T20:00:00Z");
+        alice.setRemindersEnabled(false);
+        scheduler.reschedule(alice);
+
+        assertNull(alice.getNextReminderAt());
+        assertEquals(0, scheduler.scheduledCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
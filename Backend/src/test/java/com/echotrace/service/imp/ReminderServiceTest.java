@@ -1,16 +1,23 @@
 package com.echotrace.service.imp;
 
 import com.echotrace.dto.ReminderMessage;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReminderServiceTest {
@@ -18,26 +25,48 @@ class ReminderServiceTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
-    @InjectMocks
+    @Mock
+    private SimpUserRegistry userRegistry;
+
     private ReminderService reminderService;
 
+    @BeforeEach
+    void setUp() {
+        // Run batches on the calling thread so the sends can be verified synchronously
+        reminderService = new ReminderService(messagingTemplate, userRegistry, Runnable::run, 2);
+    }
+
     @Test
-    void dailyReminder_ShouldSendDailyMessage() {
-        reminderService.dailyReminder();
+    void sendDailyReminder_ShouldSendDailyMessageToEachConnectedUser() {
+        when(userRegistry.getUser(anyString())).thenReturn(mock(SimpUser.class));
+
+        reminderService.sendDailyReminder(List.of("alice", "bob", "carol"));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/reminders"), payload.capture());
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/reminders"), any(Object.class));
+        verify(messagingTemplate).convertAndSendToUser(eq("carol"), eq("/queue/reminders"), any(Object.class));
+        assertEquals("daily", ((ReminderMessage) payload.getValue()).getType());
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/reminders"), any(Object.class));
+    }
+
+    @Test
+    void sendWeeklyReminder_ShouldSkipUsersWithoutSession() {
+        when(userRegistry.getUser("alice")).thenReturn(mock(SimpUser.class));
+        when(userRegistry.getUser("offline")).thenReturn(null);
+
+        reminderService.sendWeeklyReminder(List.of("alice", "offline"));
 
-        verify(messagingTemplate).<Object>convertAndSend(
-                eq("/topic/reminders"),
-                any(ReminderMessage.class)
-        );
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/reminders"), payload.capture());
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("offline"), anyString(), any(Object.class));
+        assertEquals("weekly", ((ReminderMessage) payload.getValue()).getType());
     }
 
     @Test
-    void weeklyReminder_ShouldSendWeeklyMessage() {
-        reminderService.weeklyReminder();
+    void sendDailyReminder_ShouldSendNothingForNoUsers() {
+        reminderService.sendDailyReminder(List.of());
 
-        verify(messagingTemplate).<Object>convertAndSend(
-                eq("/topic/reminders"),
-                any(ReminderMessage.class)
-        );
+        verifyNoInteractions(messagingTemplate);
     }
 }
@@ -2,9 +2,11 @@ package com.echotrace.service.imp;
 
 import com.echotrace.dto.PasswordUpdateRequest;
 import com.echotrace.dto.UserProfileDTO;
+import com.echotrace.exception.InvalidReminderScheduleException;
 import com.echotrace.exception.UnauthorizedException;
 import com.echotrace.model.User;
 import com.echotrace.repository.UserRepository;
+import com.echotrace.security.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -14,6 +16,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -24,6 +27,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
     private UserService userService;
 
     private User testUser;
@@ -32,7 +41,7 @@ class UserServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         // manually construct service with mocks
-        userService = new UserService(userRepository, passwordEncoder);
+        userService = new UserService(userRepository, passwordEncoder, userDetailsCache, reminderScheduler);
 
         testUser = new User();
         testUser.setUsername("tester");
@@ -80,6 +89,34 @@ class UserServiceTest {
         assertEquals("updated@example.com", result.getEmail());
         assertEquals("Admin", result.getRole());
         verify(userRepository).save(testUser);
+        verify(userDetailsCache).evict("tester");
+    }
+
+    @Test
+    void testUpdateMyProfile_ReschedulesReminder() {
+        when(userRepository.findByUsername("tester")).thenReturn(Optional.of(testUser));
+
+        UserProfileDTO updatedDto = new UserProfileDTO();
+        updatedDto.setRemindersEnabled(true);
+        updatedDto.setReminderTime("07:30");
+        updatedDto.setTimeZone("Asia/Kolkata");
+
+        UserProfileDTO result = userService.updateMyProfile("tester", updatedDto);
+
+        assertEquals("07:30", result.getReminderTime());
+        assertEquals("Asia/Kolkata", result.getTimeZone());
+        verify(reminderScheduler).reschedule(testUser);
+    }
+
+    @Test
+    void testUpdateMyProfile_InvalidTimeZone() {
+        when(userRepository.findByUsername("tester")).thenReturn(Optional.of(testUser));
+
+        UserProfileDTO updatedDto = new UserProfileDTO();
+        updatedDto.setTimeZone("Mars/Olympus");
+
+        assertThrows(InvalidReminderScheduleException.class, () -> userService.updateMyProfile("tester", updatedDto));
+        verify(userRepository, never()).save(any());
     }
 
     @Test
@@ -104,6 +141,7 @@ class UserServiceTest {
         verify(passwordEncoder).matches("oldPassword", "encodedPassword");
         verify(passwordEncoder).encode("newPassword");
         verify(userRepository).save(testUser);
+        verify(userDetailsCache).evict("tester");
         assertEquals("newEncodedPassword", testUser.getPassword());
     }
 
@@ -0,0 +1,230 @@
+package com.echotrace.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process stand-in for an S3 bucket: path-style PUT, GET with a single range, HEAD, DELETE and
+ * ListObjectsV2. Every request must carry a valid Signature Version 4 for the test credentials and PUTs a
+ * matching payload hash, otherwise it is answered with 403 or 400.
+ */
+class FakeS3Server implements AutoCloseable {
+
+    static final String REGION = "us-east-1";
+    static final String BUCKET = "attachments";
+    static final String ACCESS_KEY = "test-access";
+    static final String SECRET_KEY = "test-secret";
+
+    private final HttpServer server;
+    private final S3RequestSigner signer = new S3RequestSigner(REGION, ACCESS_KEY, SECRET_KEY);
+    private final int pageSize;
+
+    final Map<String, StoredBytes> objects = new ConcurrentSkipListMap<>();
+    final List<String> requests = new ArrayList<>();
+
+    FakeS3Server(int pageSize) throws IOException {
+        this.pageSize = pageSize;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            synchronized (requests) {
+                requests.add(method + " " + path);
+            }
+            if (!validSignature(exchange)) {
+                send(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                return;
+            }
+            String bucketPath = "/" + BUCKET;
+            if (path.equals(bucketPath) && method.equals("GET")) {
+                list(exchange);
+                return;
+            }
+            if (!path.startsWith(bucketPath + "/")) {
+                send(exchange, 404, "<Error><Code>NoSuchBucket</Code></Error>");
+                return;
+            }
+            String key = URLDecoder.decode(path.substring(bucketPath.length() + 1), StandardCharsets.UTF_8);
+            switch (method) {
+                case "PUT" -> {
+                    if (!sha256Hex(body).equals(exchange.getRequestHeaders().getFirst("x-amz-content-sha256"))) {
+                        send(exchange, 400, "<Error><Code>XAmzContentSHA256Mismatch</Code></Error>");
+                        return;
+                    }
+                    objects.put(key, new StoredBytes(body, Instant.now()));
+                    send(exchange, 200, "");
+                }
+                case "GET" -> get(exchange, key);
+                case "HEAD" -> {
+                    StoredBytes object = objects.get(key);
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.bytes.length));
+                    exchange.getResponseHeaders().set("Last-Modified",
+                            DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified.atZone(ZoneOffset.UTC)));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "DELETE" -> {
+                    objects.remove(key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> send(exchange, 405, "");
+            }
+        }
+    }
+
+    private void get(HttpExchange exchange, String key) throws IOException {
+        StoredBytes object = objects.get(key);
+        if (object == null) {
+            send(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+            return;
+        }
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            send(exchange, 200, object.bytes);
+            return;
+        }
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = Math.min(Integer.parseInt(bounds[1]), object.bytes.length - 1);
+        exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + object.bytes.length);
+        byte[] part = new byte[end - start + 1];
+        System.arraycopy(object.bytes, start, part, 0, part.length);
+        send(exchange, 206, part);
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI());
+        String prefix = query.getOrDefault("prefix", "");
+        String after = query.get("continuation-token");
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"><Name>" + BUCKET + "</Name>");
+        int count = 0;
+        String last = null;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredBytes> entry : objects.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix) || (after != null && key.compareTo(after) <= 0)) {
+                continue;
+            }
+            if (count == pageSize) {
+                truncated = true;
+                break;
+            }
+            xml.append("<Contents><Key>").append(key).append("</Key><LastModified>")
+                    .append(entry.getValue().lastModified).append("</LastModified><Size>")
+                    .append(entry.getValue().bytes.length).append("</Size></Contents>");
+            count++;
+            last = key;
+        }
+        xml.append("<KeyCount>").append(count).append("</KeyCount><IsTruncated>").append(truncated)
+                .append("</IsTruncated>");
+        if (truncated) {
+            xml.append("<NextContinuationToken>").append(last).append("</NextContinuationToken>");
+        }
+        xml.append("</ListBucketResult>");
+        send(exchange, 200, xml.toString());
+    }
+
+    private boolean validSignature(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String date = exchange.getRequestHeaders().getFirst("x-amz-date");
+        String payloadHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (authorization == null || date == null || payloadHash == null) {
+            return false;
+        }
+        int start = authorization.indexOf("SignedHeaders=") + "SignedHeaders=".length();
+        String signedHeaders = authorization.substring(start, authorization.indexOf(',', start));
+        SortedMap<String, String> headers = new TreeMap<>();
+        for (String name : signedHeaders.split(";")) {
+            headers.put(name, exchange.getRequestHeaders().getFirst(name));
+        }
+        Instant time = S3RequestSigner.AMZ_DATE.parse(date, Instant::from);
+        String expected = signer.authorization(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(),
+                query(exchange.getRequestURI()), headers, payloadHash, time);
+        return expected.equals(authorization);
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (uri.getRawQuery() != null) {
+            for (String parameter : uri.getRawQuery().split("&")) {
+                String[] pair = parameter.split("=", 2);
+                query.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        send(exchange, status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body.length == 0) {
+            // Writing to the body of a -1 response makes the server drop the connection the client is about to reuse
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class StoredBytes {
+        final byte[] bytes;
+        final Instant lastModified;
+
+        StoredBytes(byte[] bytes, Instant lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.echotrace.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalAttachmentStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalAttachmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalAttachmentStore(root);
+    }
+
+    @Test
+    void put_ShouldMoveStagedFileIntoItsShard() throws IOException {
+        Path staged = Files.writeString(store.stagingDir().resolve(".upload-1"), "stack trace");
+
+        store.put("a1.txt", staged);
+
+        Path stored = store.localFile("a1.txt").orElseThrow();
+        assertThat(staged).doesNotExist();
+        assertThat(root.relativize(stored).toString().replace('\\', '/'))
+                .isEqualTo(LocalAttachmentStore.shardOf("a1.txt") + "/a1.txt")
+                .matches("[0-9a-f]{2}/[0-9a-f]{2}/a1\\.txt");
+        assertThat(stored).hasContent("stack trace");
+    }
+
+    @Test
+    void legacyFlatFiles_ShouldStillBeServedAndDeleted() throws IOException {
+        Files.writeString(root.resolve("old.txt"), "before sharding");
+
+        assertThat(store.stat("old.txt")).get().extracting(StoredObject::getSize).isEqualTo(15L);
+        assertThat(store.delete("old.txt")).isTrue();
+        assertThat(store.localFile("old.txt")).isEmpty();
+        assertThat(store.delete("old.txt")).isFalse();
+    }
+
+    @Test
+    void open_ShouldReadRequestedRange() throws IOException {
+        store.put("a1.txt", Files.writeString(store.stagingDir().resolve(".upload-1"), "0123456789"));
+
+        try (InputStream content = store.open("a1.txt", 7, 9)) {
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("789");
+        }
+    }
+
+    @Test
+    void forEach_ShouldListShardedAndLegacyFiles_ButNotStagedOnes() throws IOException {
+        store.put("a1.txt", Files.writeString(store.stagingDir().resolve(".upload-1"), "x"));
+        store.put("b2.log", Files.writeString(store.stagingDir().resolve(".upload-2"), "y"));
+        Files.writeString(root.resolve("old.txt"), "z");
+        Files.writeString(store.stagingDir().resolve(".upload-3"), "in flight");
+
+        List<String> names = new ArrayList<>();
+        store.forEach(object -> names.add(object.getName()));
+
+        assertThat(names).containsExactlyInAnyOrder("a1.txt", "b2.log", "old.txt");
+    }
+
+    @Test
+    void names_ShouldNotEscapeTheRoot() {
+        assertThatThrownBy(() -> store.delete("../escape.txt")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
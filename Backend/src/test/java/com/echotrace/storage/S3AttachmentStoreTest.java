@@ -0,0 +1,116 @@
+package com.echotrace.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3AttachmentStoreTest {
+
+    @TempDir
+    Path stagingDir;
+
+    private FakeS3Server s3;
+    private S3AttachmentStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3Server(2);
+        store = storeWithSecret(FakeS3Server.SECRET_KEY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.close();
+    }
+
+    @Test
+    void put_ShouldUploadUnderPrefix_AndConsumeStagedFile() throws IOException {
+        Path staged = stage("stack trace");
+
+        store.put("a1.txt", staged);
+
+        assertThat(staged).doesNotExist();
+        assertThat(new String(s3.objects.get("uploads/a1.txt").bytes, StandardCharsets.UTF_8)).isEqualTo("stack trace");
+        assertThat(s3.requests).containsExactly("PUT /attachments/uploads/a1.txt");
+    }
+
+    @Test
+    void open_ShouldReadRequestedRange() throws IOException {
+        store.put("a1.txt", stage("0123456789"));
+
+        try (InputStream content = store.open("a1.txt", 3, 6)) {
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("3456");
+        }
+        assertThatThrownBy(() -> store.open("missing.txt", 0, 1)).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void stat_ShouldReturnSize_OrEmptyWhenMissing() throws IOException {
+        store.put("a1.txt", stage("0123456789"));
+
+        StoredObject object = store.stat("a1.txt").orElseThrow();
+
+        assertThat(object.getSize()).isEqualTo(10);
+        assertThat(object.getLastModified()).isAfter(Instant.now().minusSeconds(60));
+        assertThat(store.stat("missing.txt")).isEmpty();
+    }
+
+    @Test
+    void forEach_ShouldPageThroughListing_AndStripPrefix() throws IOException {
+        for (String name : List.of("a.txt", "b.txt", "c.txt", "d.txt", "e.txt")) {
+            store.put(name, stage(name));
+        }
+        s3.objects.put("other/x.txt", new FakeS3Server.StoredBytes(new byte[1], Instant.now()));
+
+        List<String> names = new ArrayList<>();
+        store.forEach(object -> names.add(object.getName()));
+
+        assertThat(names).containsExactly("a.txt", "b.txt", "c.txt", "d.txt", "e.txt");
+        assertThat(s3.requests).filteredOn(request -> request.equals("GET /attachments")).hasSize(3);
+    }
+
+    @Test
+    void delete_ShouldRemoveObject() throws IOException {
+        store.put("a1.txt", stage("x"));
+
+        assertThat(store.delete("a1.txt")).isTrue();
+
+        assertThat(s3.objects).isEmpty();
+    }
+
+    @Test
+    void requests_ShouldFail_WhenSignatureIsRejected() throws IOException {
+        S3AttachmentStore wrongSecret = storeWithSecret("not-the-secret");
+        Path staged = stage("x");
+
+        assertThatThrownBy(() -> wrongSecret.put("a1.txt", staged))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("status 403")
+                .hasMessageContaining("SignatureDoesNotMatch");
+        assertThat(staged).doesNotExist();
+    }
+
+    private S3AttachmentStore storeWithSecret(String secretKey) {
+        return new S3AttachmentStore(s3.endpoint(), FakeS3Server.REGION, FakeS3Server.BUCKET, "uploads/",
+                FakeS3Server.ACCESS_KEY, secretKey, stagingDir, Duration.ofSeconds(5));
+    }
+
+    private Path stage(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(stagingDir, ".upload-", ""), content);
+    }
+}
@@ -0,0 +1,151 @@
+package com.echotrace.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredAttachmentStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private LocalAttachmentStore hot;
+    private LocalAttachmentStore cold;
+    private TieredAttachmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        hot = new LocalAttachmentStore(dir.resolve("hot"));
+        cold = new LocalAttachmentStore(dir.resolve("cold"));
+        store = new TieredAttachmentStore(hot, cold, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void put_ShouldWriteThroughToColdTier_AndKeepHotCopy() throws IOException {
+        storeReadAt("a1.txt", "content", NOW);
+
+        assertThat(hot.localFile("a1.txt")).isPresent();
+        assertThat(cold.localFile("a1.txt")).isPresent();
+        assertThat(hot.stagingDir()).isEmptyDirectory();
+        assertThat(store.stat("a1.txt")).get().extracting(StoredObject::getSize).isEqualTo(7L);
+    }
+
+    @Test
+    void demote_ShouldDropHotCopy_AndKeepServingFromColdTier() throws IOException {
+        StoredObject listed = storeReadAt("a1.txt", "0123456789", NOW.minus(Duration.ofDays(40)));
+
+        assertThat(store.demote(listed)).isTrue();
+
+        assertThat(hot.localFile("a1.txt")).isEmpty();
+        assertThat(cold.localFile("a1.txt")).isPresent();
+        assertThat(hot.stagingDir()).isEmptyDirectory();
+        assertThat(store.localFile("a1.txt")).isEmpty();
+        assertThat(store.stat("a1.txt")).get().extracting(StoredObject::getSize).isEqualTo(10L);
+        try (InputStream content = store.open("a1.txt", 2, 4)) {
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("234");
+        }
+    }
+
+    @Test
+    void demote_ShouldKeepFile_ReadSinceItWasListed() throws IOException {
+        StoredObject listed = storeReadAt("a1.txt", "x", NOW.minus(Duration.ofDays(40)));
+
+        store.localFile("a1.txt");
+
+        assertThat(store.demote(listed)).isFalse();
+        assertThat(hot.localFile("a1.txt")).isPresent();
+    }
+
+    @Test
+    void demote_ShouldCopyHotOnlyFileToColdTier_BeforeDroppingIt() throws IOException {
+        hot.put("legacy.txt", Files.writeString(hot.stagingDir().resolve(".upload-legacy"), "old"));
+
+        assertThat(store.demote(hot.stat("legacy.txt").orElseThrow())).isTrue();
+
+        assertThat(hot.localFile("legacy.txt")).isEmpty();
+        assertThat(cold.localFile("legacy.txt")).isPresent();
+    }
+
+    @Test
+    void localFile_ShouldDropHotCopy_OfFileDeletedFromColdTier_OnItsNextCheckedRead() throws IOException {
+        store.copyHotOnlyFiles();
+        storeReadAt("recent.txt", "x", NOW.minus(Duration.ofMinutes(30)));
+        storeReadAt("stale.txt", "y", NOW.minus(Duration.ofHours(2)));
+        cold.delete("recent.txt");
+        cold.delete("stale.txt");
+
+        assertThat(store.localFile("recent.txt")).isPresent();
+        assertThat(store.localFile("stale.txt")).isEmpty();
+        assertThat(hot.localFile("stale.txt")).isEmpty();
+    }
+
+    @Test
+    void copyHotOnlyFiles_ShouldCopyFilesStoredBeforeWriteThrough_AndRecordIt() throws IOException {
+        hot.put("legacy.txt", Files.writeString(hot.stagingDir().resolve(".upload-legacy"), "old"));
+        Files.setLastModifiedTime(hot.localFile("legacy.txt").orElseThrow(), FileTime.from(NOW.minus(Duration.ofHours(2))));
+        storeReadAt("a1.txt", "x", NOW);
+
+        // Until then a hot copy missing from the cold tier may be one of them
+        assertThat(store.localFile("legacy.txt")).isPresent();
+        assertThat(store.isWriteThroughComplete()).isFalse();
+
+        assertThat(store.copyHotOnlyFiles()).isEqualTo(1);
+
+        assertThat(cold.localFile("legacy.txt")).isPresent();
+        assertThat(store.isWriteThroughComplete()).isTrue();
+        assertThat(new TieredAttachmentStore(hot, cold, Duration.ofHours(1)).isWriteThroughComplete()).isTrue();
+        assertThat(names(hot)).containsExactlyInAnyOrder("legacy.txt", "a1.txt");
+    }
+
+    @Test
+    void reads_ShouldMarkAccess_AtMostOncePerGranularity() throws IOException {
+        storeReadAt("recent.txt", "x", NOW.minus(Duration.ofMinutes(30)));
+        storeReadAt("stale.txt", "y", NOW.minus(Duration.ofHours(2)));
+
+        store.localFile("recent.txt");
+        store.open("stale.txt", 0, 0).close();
+
+        assertThat(hot.stat("recent.txt").orElseThrow().getLastModified()).isEqualTo(NOW.minus(Duration.ofMinutes(30)));
+        assertThat(hot.stat("stale.txt").orElseThrow().getLastModified()).isEqualTo(NOW);
+    }
+
+    @Test
+    void delete_ShouldRemoveFromBothTiers() throws IOException {
+        store.demote(storeReadAt("a1.txt", "x", NOW.minus(Duration.ofDays(40))));
+        storeReadAt("a1.txt", "x", NOW);
+
+        assertThat(store.delete("a1.txt")).isTrue();
+
+        assertThat(hot.localFile("a1.txt")).isEmpty();
+        assertThat(cold.localFile("a1.txt")).isEmpty();
+    }
+
+    private StoredObject storeReadAt(String name, String content, Instant lastRead) throws IOException {
+        store.put(name, Files.writeString(store.stagingDir().resolve(".upload-" + name), content));
+        Files.setLastModifiedTime(hot.localFile(name).orElseThrow(), FileTime.from(lastRead));
+        return hot.stat(name).orElseThrow();
+    }
+
+    private static List<String> names(LocalAttachmentStore store) throws IOException {
+        List<String> names = new ArrayList<>();
+        store.forEach(object -> names.add(object.getName()));
+        return names;
+    }
+}
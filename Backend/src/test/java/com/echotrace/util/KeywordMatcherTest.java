@@ -0,0 +1,58 @@
+package com.echotrace.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void compile_ShouldReturnNull_WhenNoKeyword() {
+        assertThat(KeywordMatcher.compile(null)).isNull();
+        assertThat(KeywordMatcher.compile("")).isNull();
+    }
+
+    @Test
+    void find_ShouldReturnCaseInsensitiveOffsets() {
+        KeywordMatcher matcher = KeywordMatcher.compile("NullPointer");
+
+        List<int[]> matches = matcher.find("nullpointer in mapper, then a NULLPOINTER again");
+
+        assertThat(matches).containsExactly(new int[]{0, 11}, new int[]{30, 41});
+    }
+
+    @Test
+    void find_ShouldNotOverlap_AndRecoverFromPartialMatches() {
+        // "aab" inside "aaab" needs the failure links; "aa" in "aaaa" must not overlap
+        assertThat(KeywordMatcher.compile("aab").find("aaab")).containsExactly(new int[]{1, 4});
+        assertThat(KeywordMatcher.compile("aa").find("aaaa")).containsExactly(new int[]{0, 2}, new int[]{2, 4});
+    }
+
+    @Test
+    void find_ShouldMatchEachWordAsSubstring_InAnyOrder() {
+        KeywordMatcher matcher = KeywordMatcher.compile("pool Exception");
+
+        List<int[]> matches = matcher.find("NullPointerException after the pool ran dry");
+
+        assertThat(matches).containsExactly(new int[]{11, 20}, new int[]{31, 35});
+        assertThat(matcher.find(null)).isEmpty();
+    }
+
+    @Test
+    void find_ShouldKeepHighlightsDisjoint_WhenWordsOverlap() {
+        // "null" lies inside "nullpointer", the longer match starting at the same offset wins
+        assertThat(KeywordMatcher.compile("null nullpointer").find("a nullpointer"))
+                .containsExactly(new int[]{2, 13});
+        assertThat(KeywordMatcher.compile("++").find("a ++ b")).isEmpty();
+    }
+
+    @Test
+    void find_ShouldReportTokensEndingInsideLongerOnes_InOneScan() {
+        // "ab" is passed while reading "abcx"; "c" ends inside it and still starts after "ab" ends
+        KeywordMatcher matcher = KeywordMatcher.compile("ab abcx c bcd");
+
+        assertThat(matcher.find("abcd abcx")).containsExactly(new int[]{0, 2}, new int[]{2, 3}, new int[]{5, 9});
+    }
+}
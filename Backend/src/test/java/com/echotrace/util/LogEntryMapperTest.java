@@ -0,0 +1,57 @@
+package com.echotrace.util;
+
+import com.echotrace.dto.LogEntrySummary;
+import com.echotrace.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogEntryMapperTest {
+
+    private final LogEntryMapper mapper = new LogEntryMapper();
+
+    private LogEntry entry(String problem) {
+        LogEntry entry = new LogEntry();
+        entry.setId("log1");
+        entry.setTitle("NPE in mapper");
+        entry.setTags(List.of("java"));
+        entry.setProblem(problem);
+        entry.setCreatedAt(LocalDateTime.of(2026, 10, 1, 12, 0));
+        entry.setUpdatedAt(entry.getCreatedAt());
+        entry.setCreatedBy(new LogEntry.EmbeddedUser("u1", "testUser"));
+        return entry;
+    }
+
+    @Test
+    void toSummary_ShouldKeepShortProblemAsPreview() {
+        LogEntrySummary summary = mapper.toSummary(entry("Short problem"));
+
+        assertThat(summary.getPreview()).isEqualTo("Short problem");
+        assertThat(summary.isPreviewTruncated()).isFalse();
+        assertThat(summary.getUpdatedAt()).isNull();
+        assertThat(summary.getCreatedBy()).isEqualTo("testUser");
+    }
+
+    @Test
+    void toSummary_ShouldTruncateOnCodePoints() {
+        // The projection hands over one code point more than the preview; emoji are two chars each
+        String problem = "😀".repeat(LogEntrySummary.PREVIEW_LENGTH + 1);
+
+        LogEntrySummary summary = mapper.toSummary(entry(problem));
+
+        assertThat(summary.isPreviewTruncated()).isTrue();
+        assertThat(summary.getPreview().codePointCount(0, summary.getPreview().length()))
+                .isEqualTo(LogEntrySummary.PREVIEW_LENGTH);
+    }
+
+    @Test
+    void toSummary_ShouldHandleMissingProblem() {
+        LogEntrySummary summary = mapper.toSummary(entry(null));
+
+        assertThat(summary.getPreview()).isEmpty();
+        assertThat(summary.isPreviewTruncated()).isFalse();
+    }
+}
@@ -121,5 +121,12 @@ export const updateLog = (id, log, files) => {
 };
 export const deleteLog = (id) => api.delete(`/logs/${id}`);
 export const filterLogs = (params = {}) => api.get("/logs/filter", { params });
+export const exportLogs = (gzip = false) => api.get("/logs/export", { params: { gzip }, responseType: "blob" });
+// body: NDJSON text/Blob (one log per line) or a JSON array
+export const importLogs = (body, ndjson = true) =>
+  api.post("/logs/import", body, { headers: { "Content-Type": ndjson ? "application/x-ndjson" : "application/json" } });
+// Cursor mode: pass the previous response's nextCursor as `after` ("" for the first slice)
+export const getLogsAfter = (after = "", size = 10) => api.get("/logs", { params: { after, size } });
+export const filterLogsAfter = (params = {}, after = "") => api.get("/logs/filter", { params: { ...params, after } });
 
 export default api;
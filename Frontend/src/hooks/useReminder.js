@@ -30,9 +30,17 @@ export const useReminders = () => {
       reconnectDelay: 5000,
     });
 
+    // The CONNECT frame carries the JWT so the server can route /user/queue/reminders to this user only.
+    // Read it on every (re)connect, the access token may have been refreshed in the meantime.
+    client.beforeConnect = () => {
+      client.connectHeaders = {
+        Authorization: `Bearer ${localStorage.getItem("token")}`,
+      };
+    };
+
     client.onConnect = () => {
-      client.subscribe("/topic/reminders", (message) => {
-        if (message.body && enabled) {
+      client.subscribe("/user/queue/reminders", (message) => {
+        if (message.body) {
           const reminder = JSON.parse(message.body);
           setReminders(prev => [reminder, ...prev]);
 
@@ -37,12 +37,14 @@ function LogsList() {
     };
   };
 
-  // Fetch logs
+  // Fetch logs. Offset pages rather than the cursor API (getLogsAfter/filterLogsAfter): cursors only walk
+  // newest first and cannot jump to page N, and this view offers other sort orders and numbered pages.
   const fetchLogs = async (page = pageInfo.number, size = pageInfo.size, sort = pageInfo.sort) => {
     setLoading(true);
     setErrorMessage("");
 
-    const params = { page, size, sort };
+    // The list only needs title, tags and a preview, the server projects away the rest
+    const params = { page, size, sort, view: "summary" };
     if (searchTerm.trim()) {
       params[isSearchingByTag ? "tag" : "keyword"] = searchTerm.trim();
     }
@@ -128,7 +130,8 @@ function LogsList() {
         )}
 
         <p className={theme === "dark" ? "text-gray-400" : "text-gray-600"}>
-          {log.problem}
+          {log.preview}
+          {log.previewTruncated && "…"}
         </p>
 
         <div
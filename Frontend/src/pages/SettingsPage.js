@@ -37,6 +37,7 @@ function SettingsPage() {
   const navigate = useNavigate();
   const { isDarkMode, toggleTheme } = useTheme();
   const [notificationsEnabled, setNotificationsEnabled] = useState(true);
+  const [reminderTime, setReminderTime] = useState("20:00");
   const [showLogoutConfirm, setShowLogoutConfirm] = useState(false);
   const [loading, setLoading] = useState(false);
   const [errorMessage, setErrorMessage] = useState("");
@@ -46,6 +47,7 @@ function SettingsPage() {
       try {
         const res = await getMyProfile();
         setNotificationsEnabled(res.data.remindersEnabled ?? true);
+        setReminderTime(res.data.reminderTime ?? "20:00");
       } catch (err) {
         console.error("Failed to fetch user profile", err);
         setErrorMessage("Failed to load settings. Check connection.");
@@ -73,6 +75,31 @@ function SettingsPage() {
     }
   };
 
+  // Reminders are sent at this local time; the browser's zone is saved with it
+  const handleReminderTimeChange = async (e) => {
+    const newTime = e.target.value;
+    if (!newTime) return;
+    const previousTime = reminderTime;
+    setReminderTime(newTime);
+    setLoading(true);
+    setErrorMessage("");
+
+    try {
+      const currentProfile = (await getMyProfile()).data;
+      await updateMyProfile({
+        ...currentProfile,
+        reminderTime: newTime,
+        timeZone: Intl.DateTimeFormat().resolvedOptions().timeZone,
+      });
+    } catch (err) {
+      console.error("Failed to update reminder time", err);
+      setErrorMessage("Failed to update reminder time.");
+      setReminderTime(previousTime);
+    } finally {
+      setLoading(false);
+    }
+  };
+
   const handleLogout = () => setShowLogoutConfirm(true);
   const confirmLogout = () => {
     localStorage.removeItem("token");
@@ -245,6 +272,29 @@ function SettingsPage() {
                 ></div>
               </label>
             </div>
+
+            {/* Reminder Time */}
+            {notificationsEnabled && (
+              <div
+                className={`flex items-center justify-between p-4 transition-colors duration-200 ${
+                  isDarkMode ? "hover:bg-gray-600" : "hover:bg-gray-100"
+                }`}
+              >
+                <div className="flex items-center space-x-3">
+                  <FaBell className="w-5 h-5" />
+                  <span className="font-medium">Reminder Time</span>
+                </div>
+                <input
+                  type="time"
+                  value={reminderTime}
+                  onChange={handleReminderTimeChange}
+                  disabled={loading}
+                  className={`px-3 py-1 rounded-lg border ${
+                    isDarkMode ? "bg-gray-700 border-gray-600 text-gray-100" : "bg-white border-gray-300 text-gray-800"
+                  }`}
+                />
+              </div>
+            )}
           </div>
         </section>
 
@@ -20,6 +20,7 @@ const UpdateLog = () => {
   const [existingFiles, setExistingFiles] = useState([]);
   const [files, setFiles] = useState([]);
   const [filesToDelete, setFilesToDelete] = useState([]);
+  const [version, setVersion] = useState(null);
   const [loading, setLoading] = useState(true);
   const [errorMessage, setErrorMessage] = useState("");
   const [successMessage, setSuccessMessage] = useState("");
@@ -65,6 +66,7 @@ const UpdateLog = () => {
         setCodeSnippet(log.codeSnippet || "");
         setTags(log.tags || []);
         setExistingFiles(log.attachments || []);
+        setVersion(log.version ?? null);
       } catch (err) {
         console.error(err);
         setErrorMessage("Failed to fetch log details.");
@@ -119,6 +121,7 @@ const UpdateLog = () => {
       codeSnippet,
       tags,
       filesToDelete,
+      version,
     };
 
     try {
@@ -128,7 +131,10 @@ const UpdateLog = () => {
       setTimeout(() => navigate(`/logs/${id}`), 1500);
     } catch (err) {
       console.error(err);
-      const message = err.response?.data?.message || "Failed to update log.";
+      const message =
+        err.response?.status === 409
+          ? "This log was changed elsewhere since you opened it. Reload the page to see the latest version, then apply your edits again."
+          : err.response?.data?.message || "Failed to update log.";
       setErrorMessage(message);
       setLoading(false);
     }